@@ -0,0 +1,222 @@
+package au.com.dius.pact.benchmarks;
+
+import au.com.dius.pact.core.model.Consumer;
+import au.com.dius.pact.core.model.ContentType;
+import au.com.dius.pact.core.model.DefaultPactReader;
+import au.com.dius.pact.core.model.Interaction;
+import au.com.dius.pact.core.model.OptionalBody;
+import au.com.dius.pact.core.model.Provider;
+import au.com.dius.pact.core.model.ProviderState;
+import au.com.dius.pact.core.model.Request;
+import au.com.dius.pact.core.model.RequestResponseInteraction;
+import au.com.dius.pact.core.model.RequestResponsePact;
+import au.com.dius.pact.core.model.Response;
+import au.com.dius.pact.core.model.matchingrules.MatchingRuleCategory;
+import au.com.dius.pact.core.model.matchingrules.MatchingRulesImpl;
+import au.com.dius.pact.core.model.matchingrules.RegexMatcher;
+import au.com.dius.pact.core.model.matchingrules.RuleLogic;
+import au.com.dius.pact.core.model.matchingrules.TypeMatcher;
+import au.com.dius.pact.core.support.json.JsonParser;
+import au.com.dius.pact.core.support.json.JsonValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Test corpus for the benchmarks. This is made up of the JSON files from the pact-specification-test module
+ * (the location is passed in with the pact.benchmarks.corpus system property), plus synthetic pacts and bodies that
+ * are generated on demand.
+ */
+public final class Corpus {
+  public static final String CORPUS_PROPERTY = "pact.benchmarks.corpus";
+
+  private Corpus() { }
+
+  /**
+   * Returns the directory containing the pact specification test cases
+   */
+  public static Path specificationDir() {
+    String dir = System.getProperty(CORPUS_PROPERTY, "../pact-specification-test/src/main/resources");
+    return Paths.get(dir);
+  }
+
+  /**
+   * Returns the paths of all the JSON files in the specification test corpus, sorted so the order is stable
+   */
+  public static List<Path> specificationFiles() {
+    try (Stream<Path> files = Files.walk(specificationDir())) {
+      return files.filter(p -> p.toString().endsWith(".json")).sorted().collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the contents of all the JSON files in the specification test corpus
+   */
+  public static List<String> specificationDocuments() {
+    return specificationFiles().stream().map(Corpus::read).collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the specification test cases for the given spec version and kind (request or response). Only the body
+   * test cases with JSON bodies are returned when bodiesOnly is true.
+   */
+  public static List<TestCase> specificationTestCases(String version, String kind, boolean bodiesOnly) {
+    Path dir = specificationDir().resolve(version).resolve(kind);
+    if (bodiesOnly) {
+      dir = dir.resolve("body");
+    }
+    try (Stream<Path> files = Files.walk(dir)) {
+      List<TestCase> cases = new ArrayList<>();
+      for (Path file : files.filter(p -> p.toString().endsWith(".json")).sorted().collect(Collectors.toList())) {
+        JsonValue.Object json = JsonParser.parseString(read(file)).asObject();
+        JsonValue.Object expected = json.get("expected").asObject();
+        JsonValue.Object actual = json.get("actual").asObject();
+        if (bodiesOnly && !(isJsonBody(expected) && isJsonBody(actual))) {
+          continue;
+        }
+        if (kind.equals("request")) {
+          cases.add(new TestCase(file.getFileName().toString(), DefaultPactReader.extractRequest(expected),
+            DefaultPactReader.extractRequest(actual), null, null));
+        } else {
+          cases.add(new TestCase(file.getFileName().toString(), null, null,
+            DefaultPactReader.extractResponse(expected), DefaultPactReader.extractResponse(actual)));
+        }
+      }
+      return cases;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static boolean isJsonBody(JsonValue.Object part) {
+    if (part == null || !part.has("body")) {
+      return false;
+    }
+    JsonValue body = part.get("body");
+    if (!body.isObject() && !body.isArray()) {
+      return false;
+    }
+    JsonValue headers = part.get("headers");
+    if (headers.isObject()) {
+      for (Map.Entry<String, JsonValue> entry : headers.asObject().getEntries().entrySet()) {
+        if (entry.getKey().equalsIgnoreCase("content-type")) {
+          return entry.getValue().toString().contains("json");
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Generates a JSON document of roughly the given size in bytes. The document is an array of objects which contain
+   * the typical mix of strings, numbers, booleans, nulls and nested objects found in API responses.
+   */
+  public static String largeJsonDocument(int approximateSize) {
+    StringBuilder builder = new StringBuilder(approximateSize + 512);
+    builder.append("{\"items\":[");
+    int i = 0;
+    while (builder.length() < approximateSize) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"id\":").append(i)
+        .append(",\"name\":\"Item number ").append(i).append(" with a \\\"quoted\\\" name\"")
+        .append(",\"price\":").append(i).append('.').append(i % 100)
+        .append(",\"active\":").append(i % 2 == 0)
+        .append(",\"description\":null")
+        .append(",\"createdAt\":\"2021-05-").append(10 + i % 20).append("T10:15:30Z\"")
+        .append(",\"tags\":[\"a\",\"b\",\"c").append(i % 7).append("\"]")
+        .append(",\"_links\":{\"self\":{\"href\":\"http://localhost:8080/items/").append(i).append("\"}}}");
+      i++;
+    }
+    builder.append("],\"count\":").append(i).append('}');
+    return builder.toString();
+  }
+
+  /**
+   * Matching rules to apply to the large JSON document
+   */
+  public static MatchingRuleCategory largeJsonDocumentRules() {
+    MatchingRuleCategory category = new MatchingRuleCategory("body");
+    category.addRule("$.items", TypeMatcher.INSTANCE, RuleLogic.AND);
+    category.addRule("$.items[*].id", TypeMatcher.INSTANCE, RuleLogic.AND);
+    category.addRule("$.items[*].name", TypeMatcher.INSTANCE, RuleLogic.AND);
+    category.addRule("$.items[*].price", TypeMatcher.INSTANCE, RuleLogic.AND);
+    category.addRule("$.items[*].createdAt", new RegexMatcher("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}Z"),
+      RuleLogic.AND);
+    category.addRule("$.items[*]._links.self.href", new RegexMatcher("http://.*/items/\\d+"), RuleLogic.AND);
+    category.addRule("$.count", TypeMatcher.INSTANCE, RuleLogic.AND);
+    return category;
+  }
+
+  /**
+   * Generates a pact with the given number of request/response interactions. Each interaction has a unique path,
+   * and a JSON body of the given approximate size with matching rules on the response.
+   */
+  public static RequestResponsePact syntheticPact(int interactions, int bodySize) {
+    String body = largeJsonDocument(bodySize);
+    byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+    List<Interaction> list = new ArrayList<>(interactions);
+    for (int i = 0; i < interactions; i++) {
+      Map<String, List<String>> headers = new HashMap<>();
+      headers.put("Content-Type", Collections.singletonList("application/json"));
+      Request request = new Request(i % 3 == 0 ? "POST" : "GET", syntheticPath(i), new HashMap<>(),
+        new HashMap<>(headers), OptionalBody.body(bodyBytes, ContentType.getJSON()));
+      MatchingRulesImpl rules = new MatchingRulesImpl();
+      rules.addCategory(largeJsonDocumentRules());
+      Response response = new Response(200, new HashMap<>(headers), OptionalBody.body(bodyBytes,
+        ContentType.getJSON()), rules);
+      list.add(new RequestResponseInteraction("interaction " + i,
+        Collections.singletonList(new ProviderState("state " + (i % 10))), request, response, null));
+    }
+    return new RequestResponsePact(new Provider("benchmark-provider"), new Consumer("benchmark-consumer"), list);
+  }
+
+  /**
+   * The path used for the synthetic interaction with the given index
+   */
+  public static String syntheticPath(int index) {
+    return "/api/v1/resources/" + (index % 50) + "/items/" + index;
+  }
+
+  private static String read(Path path) {
+    try {
+      return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Expected and actual values from a specification test case
+   */
+  public static final class TestCase {
+    public final String name;
+    public final Request expectedRequest;
+    public final Request actualRequest;
+    public final Response expectedResponse;
+    public final Response actualResponse;
+
+    TestCase(String name, Request expectedRequest, Request actualRequest, Response expectedResponse,
+             Response actualResponse) {
+      this.name = name;
+      this.expectedRequest = expectedRequest;
+      this.actualRequest = actualRequest;
+      this.expectedResponse = expectedResponse;
+      this.actualResponse = actualResponse;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package au.com.dius.pact.benchmarks;
+
+import au.com.dius.pact.core.matchers.BodyMatchResult;
+import au.com.dius.pact.core.matchers.JsonBodyMatcher;
+import au.com.dius.pact.core.matchers.MatchingContext;
+import au.com.dius.pact.core.model.ContentType;
+import au.com.dius.pact.core.model.OptionalBody;
+import au.com.dius.pact.core.model.matchingrules.MatchingRuleCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks for JsonBodyMatcher.matchBody. Uses the JSON body test cases from the V3 specification, plus a large
+ * document with type and regex matching rules compared against a copy of itself.
+ */
+@State(Scope.Benchmark)
+public class JsonBodyMatcherBenchmark {
+
+  @Param({"65536", "2097152"})
+  public int documentSize;
+
+  private final List<Object[]> specificationCases = new ArrayList<>();
+  private OptionalBody largeExpected;
+  private OptionalBody largeActual;
+  private MatchingContext largeContext;
+
+  @Setup
+  public void setup() {
+    for (Corpus.TestCase testCase : Corpus.specificationTestCases("v3", "request", true)) {
+      specificationCases.add(new Object[] {
+        testCase.expectedRequest.getBody(),
+        testCase.actualRequest.getBody(),
+        new MatchingContext(testCase.expectedRequest.getMatchingRules().rulesForCategory("body"), false)
+      });
+    }
+    for (Corpus.TestCase testCase : Corpus.specificationTestCases("v3", "response", true)) {
+      specificationCases.add(new Object[] {
+        testCase.expectedResponse.getBody(),
+        testCase.actualResponse.getBody(),
+        new MatchingContext(testCase.expectedResponse.getMatchingRules().rulesForCategory("body"), true)
+      });
+    }
+
+    String document = Corpus.largeJsonDocument(documentSize);
+    largeExpected = OptionalBody.body(document.getBytes(StandardCharsets.UTF_8), ContentType.getJSON());
+    largeActual = OptionalBody.body(document.getBytes(StandardCharsets.UTF_8), ContentType.getJSON());
+    MatchingRuleCategory rules = Corpus.largeJsonDocumentRules();
+    largeContext = new MatchingContext(rules, false);
+  }
+
+  @Benchmark
+  public void matchSpecificationCorpus(Blackhole blackhole) {
+    for (Object[] testCase : specificationCases) {
+      blackhole.consume(JsonBodyMatcher.INSTANCE.matchBody((OptionalBody) testCase[0], (OptionalBody) testCase[1],
+        (MatchingContext) testCase[2]));
+    }
+  }
+
+  @Benchmark
+  public BodyMatchResult matchLargeDocument() {
+    return JsonBodyMatcher.INSTANCE.matchBody(largeExpected, largeActual, largeContext);
+  }
+}
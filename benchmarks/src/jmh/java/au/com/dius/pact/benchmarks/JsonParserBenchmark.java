@@ -0,0 +1,57 @@
+package au.com.dius.pact.benchmarks;
+
+import au.com.dius.pact.core.support.json.JsonParser;
+import au.com.dius.pact.core.support.json.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Benchmarks for JsonParser. The specification corpus is parsed as a batch of ~800 small documents, and the large
+ * document is parsed on its own.
+ */
+@State(Scope.Benchmark)
+public class JsonParserBenchmark {
+
+  @Param({"65536", "4194304"})
+  public int documentSize;
+
+  private List<String> specificationDocuments;
+  private String largeDocument;
+
+  @Setup
+  public void setup() {
+    specificationDocuments = Corpus.specificationDocuments();
+    largeDocument = Corpus.largeJsonDocument(documentSize);
+  }
+
+  @Benchmark
+  public void parseStringSpecificationCorpus(Blackhole blackhole) {
+    for (String document : specificationDocuments) {
+      blackhole.consume(JsonParser.parseString(document));
+    }
+  }
+
+  @Benchmark
+  public void parseReaderSpecificationCorpus(Blackhole blackhole) {
+    for (String document : specificationDocuments) {
+      blackhole.consume(JsonParser.parseReader(new StringReader(document)));
+    }
+  }
+
+  @Benchmark
+  public JsonValue parseStringLargeDocument() {
+    return JsonParser.parseString(largeDocument);
+  }
+
+  @Benchmark
+  public JsonValue parseReaderLargeDocument() {
+    return JsonParser.parseReader(new StringReader(largeDocument));
+  }
+}
@@ -0,0 +1,42 @@
+package au.com.dius.pact.benchmarks;
+
+import au.com.dius.pact.core.model.DefaultPactWriter;
+import au.com.dius.pact.core.model.PactSpecVersion;
+import au.com.dius.pact.core.model.RequestResponsePact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Benchmarks for DefaultPactWriter.writePact. The pact is written to a writer that discards the output, so only the
+ * cost of converting and serialising the pact is measured.
+ */
+@State(Scope.Benchmark)
+public class PactWriterBenchmark {
+
+  @Param({"100", "2000"})
+  public int interactions;
+
+  @Param({"1024", "65536"})
+  public int bodySize;
+
+  @Param({"V3", "V4"})
+  public PactSpecVersion specVersion;
+
+  private RequestResponsePact pact;
+
+  @Setup
+  public void setup() {
+    pact = Corpus.syntheticPact(interactions, bodySize);
+  }
+
+  @Benchmark
+  public Object writePact() {
+    return DefaultPactWriter.INSTANCE.writePact(pact, new PrintWriter(Writer.nullWriter()), specVersion);
+  }
+}
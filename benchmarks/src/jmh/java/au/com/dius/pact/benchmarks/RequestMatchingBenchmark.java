@@ -0,0 +1,51 @@
+package au.com.dius.pact.benchmarks;
+
+import au.com.dius.pact.core.matchers.RequestMatch;
+import au.com.dius.pact.core.matchers.RequestMatching;
+import au.com.dius.pact.core.model.Request;
+import au.com.dius.pact.core.model.RequestResponsePact;
+import au.com.dius.pact.core.model.SynchronousRequestResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for RequestMatching.matchInteraction, as done by the mock server for each received request. The
+ * actual request matches one interaction in the middle of the pact, and a second request matches no interaction.
+ */
+@State(Scope.Benchmark)
+public class RequestMatchingBenchmark {
+
+  @Param({"10", "300", "2000"})
+  public int interactions;
+
+  @Param({"1024", "65536"})
+  public int bodySize;
+
+  private RequestMatching requestMatching;
+  private Request matchingRequest;
+  private Request mismatchedRequest;
+
+  @Setup
+  public void setup() {
+    RequestResponsePact pact = Corpus.syntheticPact(interactions, bodySize);
+    requestMatching = new RequestMatching(pact.getInteractions());
+    SynchronousRequestResponse interaction = pact.getInteractions().get(interactions / 2)
+      .asSynchronousRequestResponse();
+    matchingRequest = ((Request) interaction.getRequest()).copy();
+    mismatchedRequest = ((Request) interaction.getRequest()).copy();
+    mismatchedRequest.setPath("/api/v1/does-not-exist");
+  }
+
+  @Benchmark
+  public RequestMatch matchInteraction() {
+    return requestMatching.matchInteraction(matchingRequest);
+  }
+
+  @Benchmark
+  public RequestMatch mismatchInteraction() {
+    return requestMatching.matchInteraction(mismatchedRequest);
+  }
+}
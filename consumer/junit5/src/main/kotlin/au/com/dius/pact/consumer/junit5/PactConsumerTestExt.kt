@@ -5,10 +5,10 @@ import au.com.dius.pact.consumer.BaseMockServer
 import au.com.dius.pact.consumer.ConsumerPactBuilder
 import au.com.dius.pact.consumer.MessagePactBuilder
 import au.com.dius.pact.consumer.MockServer
+import au.com.dius.pact.consumer.MockServerPool
 import au.com.dius.pact.consumer.PactTestRun
 import au.com.dius.pact.consumer.PactVerificationResult
 import au.com.dius.pact.consumer.junit.JUnitTestSupport
-import au.com.dius.pact.consumer.mockServer
 import au.com.dius.pact.core.model.BasePact
 import au.com.dius.pact.core.model.Consumer
 import au.com.dius.pact.core.model.PactSpecVersion
@@ -47,8 +47,11 @@ import kotlin.reflect.full.findAnnotation
 
 class JUnit5MockServerSupport(private val baseMockServer: BaseMockServer) : AbstractBaseMockServer(),
   ExtensionContext.Store.CloseableResource {
+  // the lease the server was acquired with, so closing again after the server has been reused has no effect
+  private val lease = baseMockServer.lease
+
   override fun close() {
-    baseMockServer.stop()
+    baseMockServer.release(lease)
   }
 
   override fun start() = baseMockServer.start()
@@ -59,6 +62,8 @@ class JUnit5MockServerSupport(private val baseMockServer: BaseMockServer) : Abst
   override fun <R> runAndWritePact(pact: BasePact, pactVersion: PactSpecVersion, testFn: PactTestRun<R>) =
     baseMockServer.runAndWritePact(pact, pactVersion, testFn)
   override fun validateMockServerState(testResult: Any?) = baseMockServer.validateMockServerState(testResult)
+  fun waitForRequestsToComplete() = baseMockServer.waitForRequestsToComplete()
+  fun isPooled() = baseMockServer.pool != null
 }
 
 class PactConsumerTestExt : Extension, BeforeTestExecutionCallback, BeforeAllCallback, ParameterResolver, AfterTestExecutionCallback, AfterAllCallback {
@@ -153,7 +158,7 @@ class PactConsumerTestExt : Extension, BeforeTestExecutionCallback, BeforeAllCal
       else -> {
         val config = providerInfo.mockServerConfig()
         store.put("mockServerConfig:${providerInfo.providerName}", config)
-        val mockServer = mockServer(lookupPact(providerInfo, pactMethod, context), config)
+        val mockServer = MockServerPool.mockServerFor(lookupPact(providerInfo, pactMethod, context), config)
         store.put(key, JUnit5MockServerSupport(mockServer))
         mockServer
       }
@@ -343,9 +348,14 @@ class PactConsumerTestExt : Extension, BeforeTestExecutionCallback, BeforeAllCal
           storePactForWrite(store, provider)
         } else {
           val mockServer = store["mockServer:${provider.providerName}"] as JUnit5MockServerSupport
-          Thread.sleep(100) // give the mock server some time to have consistent state
-          mockServer.close()
-          val result = mockServer.validateMockServerState(null)
+          mockServer.waitForRequestsToComplete()
+          val result = if (mockServer.isPooled()) {
+            // a pooled server can be reused as soon as it is released, so the state is checked first
+            mockServer.validateMockServerState(null).also { mockServer.close() }
+          } else {
+            mockServer.close()
+            mockServer.validateMockServerState(null)
+          }
           if (result is PactVerificationResult.Ok) {
             storePactForWrite(store, provider)
           } else {
@@ -28,7 +28,7 @@ fun <R> runConsumerTest(pact: BasePact, config: MockProviderConfig, test: PactTe
   if (!pact.isRequestResponsePact()) {
     throw InvalidPactException("Expected an HTTP Request/Response Pact")
   }
-  val server = mockServer(pact, config)
+  val server = MockServerPool.mockServerFor(pact, config)
   return server.runAndWritePact(pact, config.pactVersion, test)
 }
 
@@ -0,0 +1,59 @@
+package au.com.dius.pact.consumer
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Tracks the requests currently being handled by a mock server, so that the state of the mock server is only checked
+ * once all the outstanding requests have completed
+ */
+class InFlightRequests {
+  private val lock = ReentrantLock()
+  private val drained = lock.newCondition()
+  private var count = 0
+
+  /**
+   * Number of requests currently being handled
+   */
+  val size: Int
+    get() = lock.withLock { count }
+
+  /**
+   * Records that a request has been received
+   */
+  fun started() {
+    lock.withLock { count++ }
+  }
+
+  /**
+   * Records that a request has completed, waking up any threads waiting for the requests to complete
+   */
+  fun finished() {
+    lock.withLock {
+      if (count > 0) {
+        count--
+      }
+      if (count == 0) {
+        drained.signalAll()
+      }
+    }
+  }
+
+  /**
+   * Waits until there are no requests being handled, or the timeout expires.
+   * @return true if all the requests completed, false if the timeout expired
+   */
+  fun awaitCompletion(timeout: Long, unit: TimeUnit): Boolean {
+    lock.withLock {
+      var remaining = unit.toNanos(timeout)
+      while (count > 0) {
+        if (remaining <= 0) {
+          return false
+        }
+        remaining = drained.awaitNanos(remaining)
+      }
+      return true
+    }
+  }
+}
@@ -4,12 +4,12 @@ import au.com.dius.pact.consumer.model.MockHttpsProviderConfig
 import au.com.dius.pact.consumer.model.MockProviderConfig
 import au.com.dius.pact.core.model.BasePact
 import au.com.dius.pact.core.model.ContentType
-import au.com.dius.pact.core.model.IResponse
 import au.com.dius.pact.core.model.OptionalBody
 import au.com.dius.pact.core.model.Pact
 import au.com.dius.pact.core.model.Request
 import au.com.dius.pact.core.model.RequestResponsePact
-import au.com.dius.pact.core.model.Response
+import au.com.dius.pact.core.support.json.JsonWriter
+import au.com.dius.pact.core.support.jsonObject
 import io.ktor.application.ApplicationCall
 import io.ktor.application.ApplicationCallPipeline
 import io.ktor.application.install
@@ -18,7 +18,7 @@ import io.ktor.http.HttpMethod
 import io.ktor.http.HttpStatusCode
 import io.ktor.request.httpMethod
 import io.ktor.request.path
-import io.ktor.request.receiveStream
+import io.ktor.request.receiveChannel
 import io.ktor.response.header
 import io.ktor.response.respond
 import io.ktor.response.respondBytes
@@ -28,7 +28,16 @@ import io.ktor.server.engine.embeddedServer
 import io.ktor.server.engine.sslConnector
 import io.ktor.server.netty.Netty
 import io.ktor.server.netty.NettyApplicationEngine
+import io.ktor.utils.io.core.readBytes
+import io.ktor.utils.io.readRemaining
+import io.netty.channel.EventLoopGroup
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.util.concurrent.DefaultThreadFactory
+import io.netty.util.concurrent.Future
+import io.netty.util.concurrent.ImmediateEventExecutor
 import mu.KLogging
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
 import java.util.zip.DeflaterInputStream
 import java.util.zip.GZIPInputStream
 
@@ -60,6 +69,7 @@ class KTorMockServer(
           context.response.header("X-PACT-BOOTCHECK", "true")
           context.respond(HttpStatusCode.OK)
         } else {
+          requestStarted()
           try {
             val request = toPactRequest(context)
             logger.debug { "Received request: $request" }
@@ -68,26 +78,45 @@ class KTorMockServer(
             pactResponseToKTorResponse(response, context)
           } catch (e: Exception) {
             logger.error(e) { "Failed to generate response" }
-            pactResponseToKTorResponse(Response(500, mutableMapOf("Content-Type" to listOf("application/json")),
-              OptionalBody.body("{\"error\": ${e.message}}".toByteArray(), ContentType.JSON)), context)
+            pactResponseToKTorResponse(MockServerResponse(500, mapOf("Content-Type" to listOf("application/json")),
+              JsonWriter.toBytes(jsonObject("error" to e.message))), context)
+          } finally {
+            requestFinished()
           }
         }
       }
     }
   }
 
-  private var server: NettyApplicationEngine = embeddedServer(Netty, environment = env, configure = {})
+  private var server: NettyApplicationEngine = embeddedServer(Netty, environment = env, configure = {
+    val ktorConfig = config.ktorConfig
+    ktorConfig.connectionGroupSize?.let { connectionGroupSize = it }
+    ktorConfig.workerGroupSize?.let { workerGroupSize = it }
+    ktorConfig.callGroupSize?.let { callGroupSize = it }
+    ktorConfig.requestQueueLimit?.let { requestQueueLimit = it }
+    ktorConfig.runningLimit?.let { runningLimit = it }
+    tcpKeepAlive = ktorConfig.tcpKeepAlive
+    if (ktorConfig.sharedEventLoop) {
+      // calls are handled on the worker group. The engine shuts down the groups set on the bootstrap when it stops,
+      // so the shared groups are wrapped to ignore that
+      shareWorkGroup = true
+      val connectionGroup = SharedEventLoopGroups.connectionGroup(connectionGroupSize)
+      val workerGroup = SharedEventLoopGroups.workerGroup(workerGroupSize)
+      configureBootstrap = { group(connectionGroup, workerGroup) }
+    }
+  })
+  private var started = false
 
-  private suspend fun pactResponseToKTorResponse(response: IResponse, call: ApplicationCall) {
+  private suspend fun pactResponseToKTorResponse(response: MockServerResponse, call: ApplicationCall) {
     response.headers.forEach { entry ->
       entry.value.forEach {
         call.response.headers.append(entry.key, it, safeOnly = false)
       }
     }
 
-    val body = response.body
-    if (body.isPresent()) {
-      call.respondBytes(status = HttpStatusCode.fromValue(response.status), bytes = body.unwrap())
+    val body = response.bytes
+    if (body != null) {
+      call.respondBytes(status = HttpStatusCode.fromValue(response.status), bytes = body)
     } else {
       call.respond(HttpStatusCode.fromValue(response.status))
     }
@@ -95,11 +124,12 @@ class KTorMockServer(
 
   private suspend fun toPactRequest(call: ApplicationCall): Request {
     val headers = call.request.headers
-    val stream = call.receiveStream()
+    // the body is read from the channel without blocking the call thread. Only compressed bodies are read as a stream
+    val contents = call.receiveChannel().readRemaining().readBytes()
     val bodyContents = when (bodyIsCompressed(headers["Content-Encoding"])) {
-      "gzip" -> GZIPInputStream(stream).readBytes()
-      "deflate" -> DeflaterInputStream(stream).readBytes()
-      else -> stream.readBytes()
+      "gzip" -> GZIPInputStream(contents.inputStream()).readBytes()
+      "deflate" -> DeflaterInputStream(contents.inputStream()).readBytes()
+      else -> contents
     }
     val body = if (bodyContents.isEmpty()) {
       OptionalBody.empty()
@@ -117,10 +147,15 @@ class KTorMockServer(
 
   override fun getPort() = server.environment.connectors.first().port
 
+  @Synchronized
   override fun start() {
-    logger.debug { "Starting mock server" }
-    server.start()
-    logger.debug { "Mock server started: ${server.environment.connectors}" }
+    if (!started) {
+      started = true
+      logger.debug { "Starting mock server" }
+      server.start()
+      serverReady()
+      logger.debug { "Mock server started: ${server.environment.connectors}" }
+    }
   }
 
   override fun stop() {
@@ -130,3 +165,36 @@ class KTorMockServer(
 
   companion object : KLogging()
 }
+
+/**
+ * Netty event loop groups shared by the KTor mock servers, keyed by the number of threads. The threads are daemon
+ * threads, so the groups do not need to be shut down.
+ */
+internal object SharedEventLoopGroups {
+  private val connectionGroups = ConcurrentHashMap<Int, EventLoopGroup>()
+  private val workerGroups = ConcurrentHashMap<Int, EventLoopGroup>()
+
+  fun connectionGroup(size: Int): EventLoopGroup = connectionGroups.computeIfAbsent(size) {
+    NonClosingEventLoopGroup(NioEventLoopGroup(it, DefaultThreadFactory("pact-ktor-connection", true)))
+  }
+
+  fun workerGroup(size: Int): EventLoopGroup = workerGroups.computeIfAbsent(size) {
+    NonClosingEventLoopGroup(NioEventLoopGroup(it, DefaultThreadFactory("pact-ktor-worker", true)))
+  }
+}
+
+/**
+ * Event loop group that ignores being shut down, so a stopping server does not shut down the group for the others
+ */
+internal class NonClosingEventLoopGroup(private val delegate: EventLoopGroup) : EventLoopGroup by delegate {
+  override fun shutdownGracefully(): Future<*> = ImmediateEventExecutor.INSTANCE.newSucceededFuture<Any?>(null)
+
+  override fun shutdownGracefully(quietPeriod: Long, timeout: Long, unit: TimeUnit): Future<*> =
+    ImmediateEventExecutor.INSTANCE.newSucceededFuture<Any?>(null)
+
+  @Deprecated("Deprecated in Netty")
+  override fun shutdown() { }
+
+  @Deprecated("Deprecated in Netty")
+  override fun shutdownNow(): List<Runnable> = emptyList()
+}
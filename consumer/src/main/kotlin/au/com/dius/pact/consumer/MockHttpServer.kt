@@ -2,6 +2,7 @@ package au.com.dius.pact.consumer
 
 import au.com.dius.pact.consumer.model.MockHttpsProviderConfig
 import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.consumer.model.MockServerExecutor
 import au.com.dius.pact.consumer.model.MockServerImplementation
 import au.com.dius.pact.core.matchers.FullRequestMatch
 import au.com.dius.pact.core.matchers.PartialRequestMatch
@@ -17,10 +18,11 @@ import au.com.dius.pact.core.model.PactSpecVersion
 import au.com.dius.pact.core.model.Request
 import au.com.dius.pact.core.model.RequestResponseInteraction
 import au.com.dius.pact.core.model.RequestResponsePact
-import au.com.dius.pact.core.model.Response
 import au.com.dius.pact.core.model.generators.GeneratorTestMode
 import au.com.dius.pact.core.model.queryStringToMap
 import au.com.dius.pact.core.support.CustomServiceUnavailableRetryStrategy
+import au.com.dius.pact.core.support.json.JsonWriter
+import au.com.dius.pact.core.support.jsonObject
 import au.com.dius.pact.core.support.unwrap
 import com.sun.net.httpserver.Headers
 import com.sun.net.httpserver.HttpExchange
@@ -28,7 +30,6 @@ import com.sun.net.httpserver.HttpHandler
 import com.sun.net.httpserver.HttpServer
 import com.sun.net.httpserver.HttpsServer
 import mu.KLogging
-import org.apache.commons.lang3.StringEscapeUtils
 import org.apache.http.client.methods.HttpOptions
 import org.apache.http.config.RegistryBuilder
 import org.apache.http.conn.socket.ConnectionSocketFactory
@@ -38,24 +39,39 @@ import org.apache.http.conn.ssl.TrustSelfSignedStrategy
 import org.apache.http.entity.ContentType
 import org.apache.http.impl.client.HttpClientBuilder
 import org.apache.http.impl.conn.BasicHttpClientConnectionManager
-import java.lang.Thread.sleep
+import java.lang.reflect.InvocationTargetException
 import java.nio.charset.Charset
+import java.util.IdentityHashMap
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.zip.DeflaterInputStream
 import java.util.zip.GZIPInputStream
 
 /**
- * Returns a mock server for the pact and config
+ * Returns a mock server for the pact and config. Configs with a routing key return a pact served by the shared
+ * multi-pact server, which is only supported for HTTP with the Java HTTP server implementation.
  */
 fun mockServer(pact: BasePact, config: MockProviderConfig): BaseMockServer {
+  val routingKey = config.routingKey
+  require(routingKey == null || (config !is MockHttpsProviderConfig &&
+    config.mockServerImplementation != MockServerImplementation.KTorServer)) {
+    "Routing key '$routingKey' is only supported for HTTP mock servers using the Java HTTP server implementation"
+  }
   return when (config) {
     is MockHttpsProviderConfig -> when (config.mockServerImplementation) {
       MockServerImplementation.KTorServer -> KTorMockServer(pact, config)
       else -> MockHttpsServer(pact, config)
     }
-    else -> when (config.mockServerImplementation) {
-      MockServerImplementation.KTorServer -> KTorMockServer(pact, config)
+    else -> when {
+      config.mockServerImplementation == MockServerImplementation.KTorServer -> KTorMockServer(pact, config)
+      routingKey != null -> MultiPactMockServer.forConfig(config).addPact(pact, routingKey, config)
       else -> MockHttpServer(pact, config)
     }
   }
@@ -97,13 +113,63 @@ abstract class AbstractBaseMockServer : MockServer {
   }
 }
 
-abstract class BaseMockServer(val pact: BasePact, val config: MockProviderConfig) : AbstractBaseMockServer() {
+abstract class BaseMockServer(pact: BasePact, val config: MockProviderConfig) : AbstractBaseMockServer() {
+
+  /**
+   * The pact being served and the requests received for it. This is replaced as a whole when the server is reused
+   * for another pact, so requests always see a consistent pact and request matcher.
+   */
+  private class PactState(val pact: BasePact) {
+    val mismatchedRequests = ConcurrentHashMap<IRequest, MutableList<PactVerificationResult>>()
+    val matchedRequests = ConcurrentLinkedQueue<IRequest>()
+    val requestMatcher = RequestMatching(pact.interactions)
+    // responses without generators never change, so they are rendered up front. This map is not modified after
+    // construction, so it is safe to read from multiple threads
+    val renderedResponses = IdentityHashMap<IResponse, MockServerResponse>()
+
+    init {
+      pact.interactions.asSequence()
+        .filter { it.isSynchronousRequestResponse() }
+        .map { it.asSynchronousRequestResponse()!!.response }
+        .filter { MockServerResponse.isStatic(it) }
+        .forEach { renderedResponses[it] = MockServerResponse.from(it) }
+    }
+  }
+
+  @Volatile
+  private var state = PactState(pact)
 
-  private val mismatchedRequests = ConcurrentHashMap<IRequest, MutableList<PactVerificationResult>>()
-  private val matchedRequests = ConcurrentLinkedQueue<IRequest>()
-  private val requestMatcher = RequestMatching(pact.interactions)
+  val pact: BasePact
+    get() = state.pact
 
+  /**
+   * The pool this server was acquired from, or null if it is not pooled
+   */
+  var pool: MockServerPool? = null
+    internal set
+
+  /**
+   * Identifies the current acquisition of this server from its pool. It changes every time the server is acquired
+   */
+  @Volatile
+  var lease: Long = 0
+    internal set
+
+  private val inFlightRequests = InFlightRequests()
+  private val readySignal = CountDownLatch(1)
+
+  /**
+   * Waits for the mock server to signal that it is listening for requests. If it does not signal in time, this falls
+   * back to sending a boot check request to the server.
+   */
   override fun waitForServer() {
+    if (!readySignal.await(SERVER_READY_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+      logger.debug { "Mock server did not signal that it was ready, sending a boot check request" }
+      bootCheck()
+    }
+  }
+
+  private fun bootCheck() {
     val sf = SSLSocketFactory(TrustSelfSignedStrategy())
     val retryStrategy = CustomServiceUnavailableRetryStrategy(5, 500)
     val httpclient = HttpClientBuilder.create()
@@ -124,24 +190,77 @@ abstract class BaseMockServer(val pact: BasePact, val config: MockProviderConfig
     httpclient.execute(httpOptions).close()
   }
 
+  /**
+   * Waits for any requests still being handled by the mock server to complete, so that it has a consistent state
+   */
+  fun waitForRequestsToComplete() {
+    if (!inFlightRequests.awaitCompletion(REQUEST_COMPLETION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+      logger.warn { "Timed out waiting for ${inFlightRequests.size} request(s) to the mock server to complete" }
+    }
+  }
+
+  /**
+   * Signals that the server is bound to its port and listening for requests
+   */
+  protected fun serverReady() = readySignal.countDown()
+
+  /**
+   * Records that the server has received a request. Must be paired with a call to [requestFinished]
+   */
+  protected fun requestStarted() = inFlightRequests.started()
+
+  /**
+   * Records that the server has completed handling a request
+   */
+  protected fun requestFinished() = inFlightRequests.finished()
+
+  /**
+   * Replaces the pact served by this server, clearing all the matched and mismatched requests
+   */
+  fun resetPact(pact: BasePact) {
+    state = PactState(pact)
+  }
+
+  /**
+   * Returns the server to the pool it was acquired from, or stops it if it is not pooled. Pass the lease the server
+   * was acquired with, so a late second release does not return the server while someone else is using it.
+   */
+  @JvmOverloads
+  fun release(lease: Long = this.lease) {
+    val pool = this.pool
+    if (pool != null) {
+      pool.release(this, lease)
+    } else {
+      stop()
+    }
+  }
+
   override fun <R> runAndWritePact(pact: BasePact, pactVersion: PactSpecVersion, testFn: PactTestRun<R>):
     PactVerificationResult {
     start()
     waitForServer()
 
-    val context = PactTestExecutionContext()
-    val testResult: R
+    val pool = this.pool
+    val lease = this.lease
     try {
-      testResult = testFn.run(this, context)
-      sleep(100) // give the mock server some time to have consistent state
-    } catch (e: Throwable) {
-      logger.debug(e) { "Caught exception in mock server" }
-      return PactVerificationResult.Error(e, validateMockServerState(null))
+      val context = PactTestExecutionContext()
+      val testResult: R
+      try {
+        testResult = testFn.run(this, context)
+        waitForRequestsToComplete()
+      } catch (e: Throwable) {
+        logger.debug(e) { "Caught exception in mock server" }
+        return PactVerificationResult.Error(e, validateMockServerState(null))
+      } finally {
+        if (pool == null) {
+          stop()
+        }
+      }
+
+      return verifyResultAndWritePact(testResult, context, pact, pactVersion)
     } finally {
-      stop()
+      pool?.release(this, lease)
     }
-
-    return verifyResultAndWritePact(testResult, context, pact, pactVersion)
   }
 
   fun <R> verifyResultAndWritePact(
@@ -167,13 +286,14 @@ abstract class BaseMockServer(val pact: BasePact, val config: MockProviderConfig
   }
 
   override fun validateMockServerState(testResult: Any?): PactVerificationResult {
-    if (mismatchedRequests.isNotEmpty()) {
-      return PactVerificationResult.Mismatches(mismatchedRequests.values.flatten())
+    val state = this.state
+    if (state.mismatchedRequests.isNotEmpty()) {
+      return PactVerificationResult.Mismatches(state.mismatchedRequests.values.flatten())
     }
-    val expectedRequests = pact.interactions.asSequence()
+    val expectedRequests = state.pact.interactions.asSequence()
       .filter { it.isSynchronousRequestResponse() }
       .map { it.asSynchronousRequestResponse()!!.request }
-      .filter { !matchedRequests.contains(it) }
+      .filter { !state.matchedRequests.contains(it) }
       .toList()
     if (expectedRequests.isNotEmpty()) {
       return PactVerificationResult.ExpectedButNotReceived(expectedRequests)
@@ -181,39 +301,47 @@ abstract class BaseMockServer(val pact: BasePact, val config: MockProviderConfig
     return PactVerificationResult.Ok(testResult)
   }
 
-  protected fun generatePactResponse(request: IRequest): IResponse {
-    when (val matchResult = requestMatcher.matchInteraction(request)) {
+  protected fun generatePactResponse(request: IRequest): MockServerResponse {
+    val state = this.state
+    when (val matchResult = state.requestMatcher.matchInteraction(request)) {
       is FullRequestMatch -> {
         val interaction = matchResult.interaction
-        matchedRequests.add(interaction.request)
-        return interaction.response.generatedResponse(
-          mutableMapOf(
-            "mockServer" to mapOf("href" to getUrl(), "port" to getPort()),
-            "ArrayContainsJsonGenerator" to ArrayContainsJsonGenerator
-        ), GeneratorTestMode.Consumer)
+        state.matchedRequests.add(interaction.request)
+        return state.renderedResponses[interaction.response] ?: MockServerResponse.from(
+          interaction.response.generatedResponse(
+            mutableMapOf(
+              "mockServer" to mapOf("href" to getUrl(), "port" to getPort()),
+              "ArrayContainsJsonGenerator" to ArrayContainsJsonGenerator
+          ), GeneratorTestMode.Consumer))
       }
       is PartialRequestMatch -> {
         val interaction = matchResult.problems.keys.first().asSynchronousRequestResponse()!!
-        mismatchedRequests.putIfAbsent(interaction.request, mutableListOf())
-        mismatchedRequests[interaction.request]?.add(PactVerificationResult.PartialMismatch(
-          matchResult.problems[interaction]!!.mismatches))
-      }
-      else -> {
-        mismatchedRequests.putIfAbsent(request, mutableListOf())
-        mismatchedRequests[request]?.add(PactVerificationResult.UnexpectedRequest(request))
+        state.mismatchedRequests.computeIfAbsent(interaction.request) { CopyOnWriteArrayList() }
+          .add(PactVerificationResult.PartialMismatch(matchResult.problems[interaction]!!.mismatches))
       }
+      else -> recordUnexpectedRequest(request)
     }
     return invalidResponse(request)
   }
 
-  private fun invalidResponse(request: IRequest): IResponse {
-    val body = "{ \"error\": \"Unexpected request : ${StringEscapeUtils.escapeJson(request.toString())}\" }"
-    return Response(500, mutableMapOf("Access-Control-Allow-Origin" to listOf("*"), "Content-Type" to listOf("application/json"),
-      "X-Pact-Unexpected-Request" to listOf("1")), OptionalBody.body(body.toByteArray(),
-      au.com.dius.pact.core.model.ContentType.JSON))
+  /**
+   * Records a request that did not match any interaction, so validating the mock server state fails
+   */
+  protected fun recordUnexpectedRequest(request: IRequest) {
+    state.mismatchedRequests.computeIfAbsent(request) { CopyOnWriteArrayList() }
+      .add(PactVerificationResult.UnexpectedRequest(request))
   }
 
-  companion object : KLogging()
+  protected fun invalidResponse(request: IRequest): MockServerResponse {
+    val body = JsonWriter.toBytes(jsonObject("error" to "Unexpected request : $request"))
+    return MockServerResponse(500, mapOf("Access-Control-Allow-Origin" to listOf("*"),
+      "Content-Type" to listOf("application/json"), "X-Pact-Unexpected-Request" to listOf("1")), body)
+  }
+
+  companion object : KLogging() {
+    const val SERVER_READY_TIMEOUT_MS = 5000L
+    const val REQUEST_COMPLETION_TIMEOUT_MS = 5000L
+  }
 }
 
 abstract class BaseJdkMockServer(
@@ -223,35 +351,48 @@ abstract class BaseJdkMockServer(
   private var stopped: Boolean = false
 ) : HttpHandler, BaseMockServer(pact, config) {
 
+  private var started = false
+
+  private val executor: ExecutorService? = createExecutor(config)
+
   override fun handle(exchange: HttpExchange) {
     if (exchange.requestMethod == "OPTIONS" && exchange.requestHeaders.containsKey("X-PACT-BOOTCHECK")) {
       exchange.responseHeaders.add("X-PACT-BOOTCHECK", "true")
       exchange.sendResponseHeaders(200, 0)
       exchange.close()
     } else {
+      requestStarted()
       try {
         val request = toPactRequest(exchange)
         logger.debug { "Received request: $request" }
-        val response = generatePactResponse(request)
+        val response = responseFor(request)
         logger.debug { "Generating response: $response" }
         pactResponseToHttpExchange(response, exchange)
       } catch (e: Exception) {
         logger.error(e) { "Failed to generate response" }
-        pactResponseToHttpExchange(Response(500, mutableMapOf("Content-Type" to listOf("application/json")),
-          OptionalBody.body("{\"error\": ${e.message}}".toByteArray(), au.com.dius.pact.core.model.ContentType.JSON)), exchange)
+        pactResponseToHttpExchange(MockServerResponse(500, mapOf("Content-Type" to listOf("application/json")),
+          JsonWriter.toBytes(jsonObject("error" to e.message))), exchange)
+      } finally {
+        requestFinished()
       }
     }
   }
 
-  private fun pactResponseToHttpExchange(response: IResponse, exchange: HttpExchange) {
-    val headers = response.headers
-    exchange.responseHeaders.putAll(headers)
+  /**
+   * Returns the response for a request received by the server
+   */
+  protected open fun responseFor(request: Request): MockServerResponse = generatePactResponse(request)
+
+  private fun pactResponseToHttpExchange(response: MockServerResponse, exchange: HttpExchange) {
+    // the header lists are copied as the exchange headers are modifiable, and the rendered response may be shared
+    for ((name, values) in response.headers) {
+      exchange.responseHeaders[name] = values.toMutableList()
+    }
     if (config.addCloseHeader) {
       exchange.responseHeaders.add("Connection", "close")
     }
-    val body = response.body
-    if (body.isPresent()) {
-      val bytes = body.unwrap()
+    val bytes = response.bytes
+    if (bytes != null) {
       exchange.sendResponseHeaders(response.status, bytes.size.toLong())
       exchange.responseBody.write(bytes)
     } else {
@@ -288,18 +429,27 @@ abstract class BaseJdkMockServer(
 
   private fun initServer() {
     server.createContext("/", this)
+    if (executor != null) {
+      server.executor = executor
+    }
   }
 
+  @Synchronized
   override fun start() {
-    logger.debug { "Starting mock server" }
-    server.start()
-    logger.debug { "Mock server started: ${server.address}" }
+    if (!started) {
+      started = true
+      logger.debug { "Starting mock server" }
+      server.start()
+      serverReady()
+      logger.debug { "Mock server started: ${server.address}" }
+    }
   }
 
   override fun stop() {
     if (!stopped) {
       stopped = true
       server.stop(0)
+      executor?.shutdown()
       logger.debug { "Mock server shutdown" }
     }
   }
@@ -318,7 +468,43 @@ abstract class BaseJdkMockServer(
 
   override fun getPort(): Int = server.address.port
 
-  companion object : KLogging()
+  companion object : KLogging() {
+    private val threadCount = AtomicInteger()
+
+    private val threadFactory = ThreadFactory { runnable ->
+      Thread(runnable, "pact-mock-server-${threadCount.incrementAndGet()}").apply { isDaemon = true }
+    }
+
+    /**
+     * Creates the executor for the server from the config, or returns null to use the dispatcher thread of the server
+     */
+    fun createExecutor(config: MockProviderConfig): ExecutorService? {
+      return when (config.executor) {
+        MockServerExecutor.Dispatcher -> null
+        MockServerExecutor.FixedThreadPool ->
+          Executors.newFixedThreadPool(config.executorThreads.coerceAtLeast(1), threadFactory)
+        MockServerExecutor.CachedThreadPool -> Executors.newCachedThreadPool(threadFactory)
+        MockServerExecutor.VirtualThreads -> virtualThreadExecutor() ?: Executors.newCachedThreadPool(threadFactory)
+      }
+    }
+
+    /**
+     * Creates a virtual thread per task executor if the JVM supports it. On JDK 19 and 20 the method exists, but throws
+     * an UnsupportedOperationException unless preview features are enabled, so that falls back as well.
+     */
+    private fun virtualThreadExecutor(): ExecutorService? {
+      return try {
+        Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as ExecutorService
+      } catch (e: ReflectiveOperationException) {
+        val cause = if (e is InvocationTargetException) e.targetException else e
+        logger.warn { "Virtual threads are not supported by this JVM ($cause), using a cached thread pool instead" }
+        null
+      } catch (e: UnsupportedOperationException) {
+        logger.warn { "Virtual threads are not supported by this JVM ($e), using a cached thread pool instead" }
+        null
+      }
+    }
+  }
 }
 
 open class MockHttpServer(pact: BasePact, config: MockProviderConfig) :
@@ -0,0 +1,152 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.consumer.model.KTorServerConfig
+import au.com.dius.pact.consumer.model.MockHttpsKeystoreProviderConfig
+import au.com.dius.pact.consumer.model.MockHttpsProviderConfig
+import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.consumer.model.MockServerExecutor
+import au.com.dius.pact.consumer.model.MockServerImplementation
+import au.com.dius.pact.core.model.BasePact
+import mu.KLogging
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedDeque
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Pool of running mock servers that are reused across tests. Instead of binding, starting and stopping a new server
+ * for every test, a server with the same implementation, scheme, host and port is taken from the pool and has its
+ * pact replaced. Servers are returned to the pool when the test completes, and are only stopped when the pool is
+ * closed.
+ *
+ * HTTPS configs with a generated key store (see [MockHttpsProviderConfig.httpsConfig]) have new TLS material on every
+ * call, so they can never match an idle server. Servers for these are not kept, and are stopped when released.
+ */
+class MockServerPool : AutoCloseable {
+  private data class Key(
+    val configClass: Class<*>,
+    val implementation: MockServerImplementation,
+    val scheme: String,
+    val hostname: String,
+    val port: Int,
+    val addCloseHeader: Boolean,
+    val executor: MockServerExecutor,
+    val executorThreads: Int,
+    val ktorConfig: KTorServerConfig,
+    val routingKey: String?,
+    val tlsSettings: List<Any?>
+  ) {
+    companion object {
+      fun from(config: MockProviderConfig) = Key(config.javaClass, config.mockServerImplementation, config.scheme,
+        config.hostname, config.port, config.addCloseHeader, config.executor, config.executorThreads,
+        config.ktorConfig, config.routingKey, tlsSettings(config))
+
+      private fun tlsSettings(config: MockProviderConfig) = when (config) {
+        is MockHttpsKeystoreProviderConfig -> listOf(config.keystore, config.password)
+        else -> emptyList()
+      }
+    }
+  }
+
+  private val idle = ConcurrentHashMap<Key, ConcurrentLinkedDeque<BaseMockServer>>()
+  // servers that are in use, with the lease they were acquired with
+  private val inUse = ConcurrentHashMap<BaseMockServer, Long>()
+  private val leases = AtomicLong()
+  private val servers = ConcurrentLinkedQueue<BaseMockServer>()
+  @Volatile
+  private var closed = false
+
+  /**
+   * Returns a running mock server for the pact and config, reusing an idle server from the pool if there is one
+   */
+  fun acquire(pact: BasePact, config: MockProviderConfig): BaseMockServer {
+    check(!closed) { "Mock server pool has been closed" }
+    val server = if (isPoolable(config)) idle[Key.from(config)]?.pollFirst() else null
+    return if (server != null) {
+      logger.debug { "Reusing mock server ${server.getUrl()}" }
+      server.resetPact(pact)
+      lease(server)
+      server
+    } else {
+      val newServer = mockServer(pact, config)
+      newServer.pool = this
+      newServer.start()
+      servers.add(newServer)
+      lease(newServer)
+      logger.debug { "Added mock server ${newServer.getUrl()} to the pool" }
+      newServer
+    }
+  }
+
+  private fun lease(server: BaseMockServer) {
+    val lease = leases.incrementAndGet()
+    server.lease = lease
+    inUse[server] = lease
+  }
+
+  /**
+   * Returns the server to the pool. The server is only released if it is still in use under the given lease, so
+   * releasing it a second time, after it has been acquired again by someone else, has no effect. Servers that can not
+   * be reused are stopped.
+   */
+  @JvmOverloads
+  fun release(server: BaseMockServer, lease: Long = server.lease) {
+    if (inUse.remove(server, lease)) {
+      if (closed || !isPoolable(server.config)) {
+        servers.remove(server)
+        server.stop()
+      } else {
+        idle.computeIfAbsent(Key.from(server.config)) { ConcurrentLinkedDeque() }.addFirst(server)
+      }
+    }
+  }
+
+  /**
+   * Number of servers started by the pool
+   */
+  val size: Int
+    get() = servers.size
+
+  /**
+   * Stops all the servers in the pool
+   */
+  override fun close() {
+    closed = true
+    idle.clear()
+    while (true) {
+      val server = servers.poll() ?: break
+      server.stop()
+    }
+  }
+
+  companion object : KLogging() {
+    /**
+     * Pool shared by all the tests in the JVM. The servers are stopped when the JVM shuts down.
+     */
+    @JvmStatic
+    val shared: MockServerPool by lazy {
+      MockServerPool().also { pool -> Runtime.getRuntime().addShutdownHook(Thread { pool.close() }) }
+    }
+
+    /**
+     * If the mock servers should be pooled (set with the pact.mockserver.pool system property)
+     */
+    @JvmStatic
+    fun enabled() = System.getProperty("pact.mockserver.pool") == "true"
+
+    /**
+     * If a released server for the config can be reused. HTTPS configs with their own key store instance can not be,
+     * as the key store is generated for each config.
+     */
+    @JvmStatic
+    fun isPoolable(config: MockProviderConfig) = !(config is MockHttpsProviderConfig && config.keyStore != null)
+
+    /**
+     * Returns a mock server from the shared pool if pooling is enabled, otherwise a new mock server
+     */
+    @JvmStatic
+    fun mockServerFor(pact: BasePact, config: MockProviderConfig): BaseMockServer {
+      return if (enabled()) shared.acquire(pact, config) else mockServer(pact, config)
+    }
+  }
+}
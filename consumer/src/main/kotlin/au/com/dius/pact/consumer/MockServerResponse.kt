@@ -0,0 +1,62 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.core.model.IResponse
+import java.util.Collections
+
+/**
+ * Response in the form the mock servers write it. Responses without generators are only rendered once and then
+ * shared between requests, so the body is only exposed as a copy.
+ */
+class MockServerResponse(
+  val status: Int,
+  val headers: Map<String, List<String>>,
+  body: ByteArray?
+) {
+  /**
+   * Rendered body bytes, written directly by the mock servers
+   */
+  internal val bytes: ByteArray? = body
+
+  /**
+   * Copy of the body, or null if the response has no body
+   */
+  val body: ByteArray?
+    get() = bytes?.copyOf()
+
+  /**
+   * Size of the body in bytes
+   */
+  val bodySize: Int
+    get() = bytes?.size ?: 0
+
+  override fun toString(): String {
+    val size = if (bytes != null) "${bytes.size} bytes" else "none"
+    return "MockServerResponse(status=$status, headers=$headers, body=$size)"
+  }
+
+  companion object {
+    /**
+     * Renders the status, headers and body of the response
+     */
+    @JvmStatic
+    fun from(response: IResponse): MockServerResponse {
+      val headers = Collections.unmodifiableMap(response.headers.mapValuesTo(LinkedHashMap()) { it.value.toList() })
+      val body = if (response.body.isPresent()) response.body.unwrap() else null
+      return MockServerResponse(response.status, headers, body)
+    }
+
+    /**
+     * If the response can be rendered once up front. Responses with generators (including the ones from matching
+     * rules like array contains) have to be generated for each request.
+     */
+    @JvmStatic
+    fun isStatic(response: IResponse): Boolean {
+      val matchingRules = response.matchingRules
+      return response.generators.categories.values.all { it.isEmpty() } &&
+        matchingRules.getCategories().toList().none { category ->
+          matchingRules.rulesForCategory(category).matchingRules.values
+            .any { group -> group.rules.any { it.hasGenerators() } }
+        }
+    }
+  }
+}
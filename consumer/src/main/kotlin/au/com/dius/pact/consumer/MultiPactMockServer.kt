@@ -0,0 +1,124 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.core.model.BasePact
+import au.com.dius.pact.core.model.Consumer
+import au.com.dius.pact.core.model.Provider
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponsePact
+import com.sun.net.httpserver.HttpServer
+import mu.KLogging
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Mock server that serves many pacts from a single listener. Each pact is registered with a routing key, and requests
+ * are routed to it if either the Host header matches the key, or the path starts with /<key> (in which case the
+ * prefix is removed from the path before the request is matched). Each pact has its own request matcher and state, so
+ * the pacts are verified independently. Requests that do not match any key are recorded as unexpected requests for
+ * every registered pact, so they fail the validation of all of them.
+ */
+class MultiPactMockServer(config: MockProviderConfig) :
+  BaseJdkMockServer(RequestResponsePact(Provider("multi-pact-mock-server"), Consumer()), config,
+    HttpServer.create(config.address(), 0)) {
+
+  private val routes = ConcurrentHashMap<String, RoutedMockServer>()
+
+  /**
+   * Mock server for a single pact served by the multi-pact server. It has its own config with its routing key, so
+   * pooled servers are returned to the pool under their own key.
+   */
+  inner class RoutedMockServer(pact: BasePact, val routingKey: String, config: MockProviderConfig) :
+    BaseMockServer(pact, config) {
+    override fun getUrl() = "${this@MultiPactMockServer.getUrl()}/$routingKey"
+
+    override fun getPort() = this@MultiPactMockServer.getPort()
+
+    override fun start() {
+      this@MultiPactMockServer.start()
+      serverReady()
+    }
+
+    /**
+     * Removes this pact from the server. The listener keeps running for the other pacts.
+     */
+    override fun stop() {
+      routes.remove(routingKey, this)
+    }
+
+    internal fun respond(request: Request): MockServerResponse {
+      requestStarted()
+      try {
+        return generatePactResponse(request)
+      } finally {
+        requestFinished()
+      }
+    }
+
+    internal fun unrouted(request: Request) = recordUnexpectedRequest(request)
+  }
+
+  /**
+   * Registers the pact with the routing key, and returns the mock server for it. The config of the routed server
+   * defaults to the config of this server with the routing key.
+   */
+  @JvmOverloads
+  fun addPact(
+    pact: BasePact,
+    routingKey: String,
+    routeConfig: MockProviderConfig = configForRoute(routingKey)
+  ): RoutedMockServer {
+    require(routingKey.isNotEmpty() && !routingKey.contains('/')) {
+      "Routing key '$routingKey' must not be empty or contain a '/'"
+    }
+    require(routeConfig.routingKey == routingKey) {
+      "Routing key '$routingKey' does not match the routing key of the config '${routeConfig.routingKey}'"
+    }
+    val route = RoutedMockServer(pact, routingKey, routeConfig)
+    check(routes.putIfAbsent(routingKey, route) == null) { "Routing key '$routingKey' is already in use" }
+    return route
+  }
+
+  override fun responseFor(request: Request): MockServerResponse {
+    val hostRoute = hostHeader(request)?.let { routes[it.substringBefore(':')] }
+    if (hostRoute != null) {
+      return hostRoute.respond(request)
+    }
+
+    val key = request.path.removePrefix("/").substringBefore('/')
+    val pathRoute = routes[key]
+    return if (pathRoute != null) {
+      request.path = request.path.removePrefix("/$key").ifEmpty { "/" }
+      pathRoute.respond(request)
+    } else {
+      logger.warn { "Request did not match any routing key, recording it as unexpected for all the pacts: $request" }
+      routes.values.forEach { it.unrouted(request) }
+      invalidResponse(request)
+    }
+  }
+
+  private fun configForRoute(routingKey: String) = MockProviderConfig(config.hostname, config.port, config.pactVersion,
+    config.scheme, config.mockServerImplementation, config.addCloseHeader, config.executor, config.executorThreads,
+    config.ktorConfig, routingKey)
+
+  private fun hostHeader(request: Request) =
+    request.headers.entries.find { it.key.equals("Host", ignoreCase = true) }?.value?.firstOrNull()
+
+  companion object : KLogging() {
+    private val servers = ConcurrentHashMap<String, MultiPactMockServer>()
+
+    /**
+     * Returns the running multi-pact server for the scheme, host and port of the config, starting one if needed. The
+     * servers are stopped when the JVM shuts down.
+     */
+    @JvmStatic
+    fun forConfig(config: MockProviderConfig): MultiPactMockServer {
+      return servers.computeIfAbsent("${config.scheme}://${config.hostname}:${config.port}") {
+        MultiPactMockServer(config).also { server ->
+          server.start()
+          Runtime.getRuntime().addShutdownHook(Thread { server.stop() })
+          logger.debug { "Started multi-pact mock server ${server.getUrl()}" }
+        }
+      }
+    }
+  }
+}
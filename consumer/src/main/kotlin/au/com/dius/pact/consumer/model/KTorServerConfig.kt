@@ -0,0 +1,35 @@
+package au.com.dius.pact.consumer.model
+
+/**
+ * Netty settings for the KTor mock server. Any size or limit that is not set uses the KTor default.
+ */
+data class KTorServerConfig @JvmOverloads constructor(
+  /**
+   * Use event loop groups shared by all the KTor mock servers in the JVM, instead of each server creating its own
+   */
+  val sharedEventLoop: Boolean = System.getProperty("pact.mockserver.ktor.sharedEventLoop") == "true",
+  /**
+   * Number of threads accepting connections
+   */
+  val connectionGroupSize: Int? = null,
+  /**
+   * Number of threads processing connections (reading and writing requests and responses)
+   */
+  val workerGroupSize: Int? = null,
+  /**
+   * Number of threads handling the calls
+   */
+  val callGroupSize: Int? = null,
+  /**
+   * Number of requests that can be queued for processing
+   */
+  val requestQueueLimit: Int? = null,
+  /**
+   * Number of requests that can be processed at the same time
+   */
+  val runningLimit: Int? = null,
+  /**
+   * Enables TCP keep alive on the connections
+   */
+  val tcpKeepAlive: Boolean = false
+)
@@ -16,8 +16,11 @@ class MockHttpsProviderConfig @JvmOverloads constructor(
   val keyStoreAlias: String = "alias",
   val keystorePassword: String = "changeme",
   val privateKeyPassword: String = "changeme",
-  override val mockServerImplementation: MockServerImplementation = MockServerImplementation.KTorServer
-) : MockProviderConfig(hostname, port, pactVersion, "https", mockServerImplementation) {
+  override val mockServerImplementation: MockServerImplementation = MockServerImplementation.KTorServer,
+  override val executor: MockServerExecutor = MockServerExecutor.Dispatcher,
+  override val executorThreads: Int = Runtime.getRuntime().availableProcessors()
+) : MockProviderConfig(hostname, port, pactVersion, "https", mockServerImplementation, executor = executor,
+  executorThreads = executorThreads) {
 
   companion object {
     @JvmStatic
@@ -26,7 +29,8 @@ class MockHttpsProviderConfig @JvmOverloads constructor(
       hostname: String = LOCALHOST,
       port: Int = 0,
       pactVersion: PactSpecVersion = PactSpecVersion.V3,
-      implementation: MockServerImplementation = MockServerImplementation.KTorServer
+      implementation: MockServerImplementation = MockServerImplementation.KTorServer,
+      executor: MockServerExecutor = MockServerExecutor.fromSystemProperty()
     ): MockHttpsProviderConfig {
       val jksFile = File.createTempFile("PactTest", ".jks")
       val p = if (port == 0) {
@@ -36,7 +40,7 @@ class MockHttpsProviderConfig @JvmOverloads constructor(
       }
       val keystore = io.ktor.network.tls.certificates.generateCertificate(jksFile, "SHA1withRSA", "PactTest", "changeit", "changeit", 1024)
       return MockHttpsProviderConfig(hostname, p, pactVersion, keystore, "PactTest", "changeit", "changeit",
-        implementation.merge(MockServerImplementation.KTorServer))
+        implementation.merge(MockServerImplementation.KTorServer), executor)
     }
   }
 }
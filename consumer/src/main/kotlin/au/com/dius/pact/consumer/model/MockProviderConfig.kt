@@ -29,6 +29,44 @@ enum class MockServerImplementation {
   }
 }
 
+/**
+ * How the Java HTTP server mock server executes requests
+ */
+enum class MockServerExecutor {
+  /**
+   * Requests are handled one at a time on the dispatcher thread of the server (the JDK default)
+   */
+  Dispatcher,
+
+  /**
+   * Requests are handled by a fixed size thread pool (see [MockProviderConfig.executorThreads])
+   */
+  FixedThreadPool,
+
+  /**
+   * Requests are handled by a thread pool that grows as needed
+   */
+  CachedThreadPool,
+
+  /**
+   * Each request is handled by a new virtual thread. Falls back to a cached thread pool on JDKs without virtual threads
+   */
+  VirtualThreads;
+
+  companion object {
+    /**
+     * Returns the executor configured with the pact.mockserver.executor system property, or the default if it is not
+     * set or not valid
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun fromSystemProperty(defaultExecutor: MockServerExecutor = Dispatcher): MockServerExecutor {
+      val property = System.getProperty("pact.mockserver.executor")
+      return values().find { it.name.equals(property, ignoreCase = true) } ?: defaultExecutor
+    }
+  }
+}
+
 /**
  * Configuration of the Pact Mock Server.
  *
@@ -41,7 +79,11 @@ open class MockProviderConfig @JvmOverloads constructor (
   open val pactVersion: PactSpecVersion = PactSpecVersion.V3,
   open val scheme: String = HTTP,
   open val mockServerImplementation: MockServerImplementation = MockServerImplementation.JavaHttpServer,
-  open val addCloseHeader: Boolean = false
+  open val addCloseHeader: Boolean = false,
+  open val executor: MockServerExecutor = MockServerExecutor.Dispatcher,
+  open val executorThreads: Int = Runtime.getRuntime().availableProcessors(),
+  open val ktorConfig: KTorServerConfig = KTorServerConfig(),
+  open val routingKey: String? = null
 ) {
 
   fun url() = "$scheme://$hostname:$port"
@@ -59,9 +101,10 @@ open class MockProviderConfig @JvmOverloads constructor (
       port: Int = 0,
       pactVersion: PactSpecVersion = PactSpecVersion.V3,
       implementation: MockServerImplementation = MockServerImplementation.JavaHttpServer,
-      addCloseHeader: Boolean = System.getProperty("pact.mockserver.addCloseHeader") == "true"
+      addCloseHeader: Boolean = System.getProperty("pact.mockserver.addCloseHeader") == "true",
+      executor: MockServerExecutor = MockServerExecutor.fromSystemProperty()
     ) = MockProviderConfig(hostname, port, pactVersion, HTTP,
-      implementation.merge(MockServerImplementation.JavaHttpServer), addCloseHeader)
+      implementation.merge(MockServerImplementation.JavaHttpServer), addCloseHeader, executor)
 
     @JvmStatic
     fun createDefault() = createDefault(LOCALHOST, PactSpecVersion.V3)
@@ -72,6 +115,7 @@ open class MockProviderConfig @JvmOverloads constructor (
     @JvmStatic
     fun createDefault(host: String, pactVersion: PactSpecVersion) =
       MockProviderConfig(hostname = host, pactVersion = pactVersion,
-        addCloseHeader = System.getProperty("pact.mockserver.addCloseHeader") == "true")
+        addCloseHeader = System.getProperty("pact.mockserver.addCloseHeader") == "true",
+        executor = MockServerExecutor.fromSystemProperty())
   }
 }
@@ -0,0 +1,47 @@
+package au.com.dius.pact.consumer
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.TimeUnit
+
+class InFlightRequestsSpec extends Specification {
+
+  def 'completes immediately when there are no requests'() {
+    expect:
+    new InFlightRequests().awaitCompletion(0, TimeUnit.MILLISECONDS)
+  }
+
+  def 'times out if a request does not complete'() {
+    given:
+    def requests = new InFlightRequests()
+    requests.started()
+
+    expect:
+    !requests.awaitCompletion(10, TimeUnit.MILLISECONDS)
+    requests.size == 1
+  }
+
+  @Timeout(10)
+  def 'waits for the outstanding requests to complete'() {
+    given:
+    def requests = new InFlightRequests()
+    requests.started()
+    requests.started()
+    def thread = Thread.start {
+      Thread.sleep(50)
+      requests.finished()
+      requests.finished()
+    }
+
+    when:
+    def completed = requests.awaitCompletion(5, TimeUnit.SECONDS)
+
+    then:
+    completed
+    requests.size == 0
+
+    cleanup:
+    thread.join()
+  }
+}
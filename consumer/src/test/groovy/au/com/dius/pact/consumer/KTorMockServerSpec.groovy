@@ -0,0 +1,59 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.consumer.model.KTorServerConfig
+import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.consumer.model.MockServerExecutor
+import au.com.dius.pact.consumer.model.MockServerImplementation
+import au.com.dius.pact.core.model.Consumer
+import au.com.dius.pact.core.model.PactSpecVersion
+import au.com.dius.pact.core.model.Provider
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponseInteraction
+import au.com.dius.pact.core.model.RequestResponsePact
+import au.com.dius.pact.core.model.Response
+import spock.lang.Specification
+import spock.lang.Timeout
+
+class KTorMockServerSpec extends Specification {
+
+  @Timeout(60)
+  def 'stopping a server does not stop the shared event loop groups used by the other servers'() {
+    given:
+    def pact = new RequestResponsePact(new Provider(), new Consumer(), [
+      new RequestResponseInteraction('get a', [], new Request('GET', '/a'), new Response(200))
+    ])
+    def ktorConfig = new KTorServerConfig(true, 1, 2)
+    def first = new KTorMockServer(pact, config(freePort(), ktorConfig))
+    def second = new KTorMockServer(pact, config(freePort(), ktorConfig))
+    first.start()
+    first.waitForServer()
+    second.start()
+    second.waitForServer()
+
+    when:
+    first.stop()
+    def status = new URL(second.url + '/a').openConnection().responseCode
+
+    then:
+    status == 200
+    !SharedEventLoopGroups.INSTANCE.workerGroup(2).shuttingDown
+    !SharedEventLoopGroups.INSTANCE.connectionGroup(1).shuttingDown
+
+    cleanup:
+    second.stop()
+  }
+
+  private static MockProviderConfig config(int port, KTorServerConfig ktorConfig) {
+    new MockProviderConfig('localhost', port, PactSpecVersion.V3, 'http', MockServerImplementation.KTorServer,
+      false, MockServerExecutor.Dispatcher, 2, ktorConfig)
+  }
+
+  private static int freePort() {
+    def socket = new ServerSocket(0)
+    try {
+      socket.localPort
+    } finally {
+      socket.close()
+    }
+  }
+}
@@ -2,8 +2,14 @@ package au.com.dius.pact.consumer
 
 import au.com.dius.pact.core.model.Consumer
 import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.consumer.model.MockServerExecutor
+import au.com.dius.pact.consumer.model.MockServerImplementation
+import au.com.dius.pact.core.model.PactSpecVersion
 import au.com.dius.pact.core.model.Provider
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponseInteraction
 import au.com.dius.pact.core.model.RequestResponsePact
+import au.com.dius.pact.core.model.Response
 import com.sun.net.httpserver.HttpExchange
 import spock.lang.IgnoreIf
 import spock.lang.Issue
@@ -11,6 +17,9 @@ import spock.lang.Specification
 import spock.lang.Timeout
 import spock.lang.Unroll
 
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
 import static au.com.dius.pact.consumer.MockHttpServerKt.mockServer
 
 class MockHttpServerSpec extends Specification {
@@ -81,4 +90,64 @@ class MockHttpServerSpec extends Specification {
     then:
     request.path == '/endpoint/Some%2FValue'
   }
+
+  @Unroll
+  def 'creates the request executor from the config - #executor'() {
+    given:
+    def config = new MockProviderConfig('localhost', 0, PactSpecVersion.V3, 'http',
+      MockServerImplementation.JavaHttpServer, false, executor, 2)
+
+    when:
+    def result = BaseJdkMockServer.Companion.createExecutor(config)
+
+    then:
+    (result == null) == expectNull
+
+    cleanup:
+    result?.shutdown()
+
+    where:
+
+    executor                            | expectNull
+    MockServerExecutor.Dispatcher       | true
+    MockServerExecutor.FixedThreadPool  | false
+    MockServerExecutor.CachedThreadPool | false
+    MockServerExecutor.VirtualThreads   | false
+  }
+
+  @Timeout(60)
+  def 'records the results of concurrent requests'() {
+    given:
+    def pact = new RequestResponsePact(new Provider(), new Consumer(), [
+      new RequestResponseInteraction('get a', [], new Request('GET', '/a'), new Response(200))
+    ])
+    def config = new MockProviderConfig('localhost', 0, PactSpecVersion.V3, 'http',
+      MockServerImplementation.JavaHttpServer, false, MockServerExecutor.FixedThreadPool, 4)
+    def server = new MockHttpServer(pact, config)
+    def clients = Executors.newFixedThreadPool(8)
+    server.start()
+    server.waitForServer()
+
+    when:
+    def matched = clients.invokeAll((1..20).collect {
+      { -> new URL(server.url + '/a').openConnection().responseCode } as Callable<Integer>
+    })*.get()
+    def stateAfterMatched = server.validateMockServerState(null)
+    def unexpected = clients.invokeAll((1..10).collect {
+      { -> new URL(server.url + '/b').openConnection().responseCode } as Callable<Integer>
+    })*.get()
+    def stateAfterUnexpected = server.validateMockServerState(null)
+
+    then:
+    matched.every { it == 200 }
+    stateAfterMatched instanceof PactVerificationResult.Ok
+    unexpected.every { it == 500 }
+    stateAfterUnexpected instanceof PactVerificationResult.Mismatches
+    stateAfterUnexpected.mismatches.size() == 10
+    stateAfterUnexpected.mismatches.every { it instanceof PactVerificationResult.UnexpectedRequest }
+
+    cleanup:
+    clients.shutdown()
+    server.stop()
+  }
 }
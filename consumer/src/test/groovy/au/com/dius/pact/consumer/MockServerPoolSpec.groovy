@@ -0,0 +1,175 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.consumer.model.KTorServerConfig
+import au.com.dius.pact.consumer.model.MockHttpsProviderConfig
+import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.consumer.model.MockServerExecutor
+import au.com.dius.pact.consumer.model.MockServerImplementation
+import au.com.dius.pact.core.model.PactSpecVersion
+import au.com.dius.pact.core.model.Consumer
+import au.com.dius.pact.core.model.Provider
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponseInteraction
+import au.com.dius.pact.core.model.RequestResponsePact
+import au.com.dius.pact.core.model.Response
+import spock.lang.Specification
+import spock.lang.Timeout
+
+class MockServerPoolSpec extends Specification {
+
+  private MockServerPool pool = new MockServerPool()
+
+  def cleanup() {
+    pool.close()
+  }
+
+  private static RequestResponsePact pact(String path) {
+    new RequestResponsePact(new Provider(), new Consumer(), [
+      new RequestResponseInteraction('test', [], new Request('GET', path), new Response())
+    ])
+  }
+
+  def 'reuses a released server for the next pact'() {
+    given:
+    def config = MockProviderConfig.createDefault()
+    def pact1 = pact('/one')
+    def pact2 = pact('/two')
+
+    when:
+    def server1 = pool.acquire(pact1, config)
+    def port = server1.port
+    pool.release(server1)
+    def server2 = pool.acquire(pact2, config)
+
+    then:
+    server2.is(server1)
+    server2.pact.is(pact2)
+    server2.port == port
+    server2.validateMockServerState(null) instanceof PactVerificationResult.ExpectedButNotReceived
+    pool.size == 1
+  }
+
+  def 'creates a new server when the pooled one is in use'() {
+    given:
+    def config = MockProviderConfig.createDefault()
+
+    when:
+    def server1 = pool.acquire(pact('/one'), config)
+    def server2 = pool.acquire(pact('/two'), config)
+
+    then:
+    !server2.is(server1)
+    server1.port != server2.port
+    pool.size == 2
+  }
+
+  def 'running a test releases the server back to the pool'() {
+    given:
+    def config = MockProviderConfig.createDefault()
+    def server = pool.acquire(pact('/one'), config)
+
+    when:
+    def result = server.runAndWritePact(server.pact, config.pactVersion, { mockServer, context ->
+      new URL(mockServer.url + '/one').text
+    } as PactTestRun)
+    def next = pool.acquire(pact('/two'), config)
+
+    then:
+    result instanceof PactVerificationResult.Ok
+    next.is(server)
+  }
+
+  def 'a second release after the server has been acquired again has no effect'() {
+    given:
+    def config = MockProviderConfig.createDefault()
+    def server1 = pool.acquire(pact('/one'), config)
+    def lease = server1.lease
+    def pact2 = pact('/two')
+
+    when:
+    server1.release(lease)
+    def server2 = pool.acquire(pact2, config)
+    server1.release(lease)
+    def server3 = pool.acquire(pact('/three'), config)
+
+    then:
+    server2.is(server1)
+    !server3.is(server2)
+    server2.pact.is(pact2)
+    pool.size == 2
+  }
+
+  def 'servers with different executor settings are not shared'() {
+    given:
+    def config1 = new MockProviderConfig('127.0.0.1', 0, PactSpecVersion.V3, 'http',
+      MockServerImplementation.JavaHttpServer, false, MockServerExecutor.FixedThreadPool, 2)
+    def config2 = new MockProviderConfig('127.0.0.1', 0, PactSpecVersion.V3, 'http',
+      MockServerImplementation.JavaHttpServer, false, MockServerExecutor.FixedThreadPool, 4)
+
+    when:
+    def server1 = pool.acquire(pact('/one'), config1)
+    pool.release(server1)
+    def server2 = pool.acquire(pact('/two'), config2)
+
+    then:
+    !server2.is(server1)
+  }
+
+  def 'routed servers are returned to the pool under their own routing key'() {
+    given:
+    def configA = routedConfig('pool-a')
+    def configB = routedConfig('pool-b')
+
+    when:
+    def serverA = pool.acquire(pact('/one'), configA)
+    def serverB = pool.acquire(pact('/two'), configB)
+    pool.release(serverA)
+    pool.release(serverB)
+    def serverB2 = pool.acquire(pact('/three'), configB)
+    def serverA2 = pool.acquire(pact('/four'), configA)
+
+    then:
+    serverA.port == serverB.port
+    serverB2.is(serverB)
+    serverB2.url.endsWith('/pool-b')
+    serverA2.is(serverA)
+    serverA2.url.endsWith('/pool-a')
+    pool.size == 2
+  }
+
+  @Timeout(60)
+  def 'servers for HTTPS configs with a generated key store are stopped when released'() {
+    given:
+    def port = freePort()
+
+    when:
+    def server1 = pool.acquire(pact('/one'), MockHttpsProviderConfig.httpsConfig('127.0.0.1', port))
+    pool.release(server1)
+    def server2 = pool.acquire(pact('/two'), MockHttpsProviderConfig.httpsConfig('127.0.0.1', port))
+
+    then:
+    !server2.is(server1)
+    server2.port == port
+    pool.size == 1
+
+    when:
+    pool.release(server2)
+
+    then:
+    pool.size == 0
+  }
+
+  private static MockProviderConfig routedConfig(String routingKey) {
+    new MockProviderConfig('127.0.0.1', 0, PactSpecVersion.V3, 'http', MockServerImplementation.JavaHttpServer,
+      false, MockServerExecutor.Dispatcher, 2, new KTorServerConfig(), routingKey)
+  }
+
+  private static int freePort() {
+    def socket = new ServerSocket(0)
+    try {
+      socket.localPort
+    } finally {
+      socket.close()
+    }
+  }
+}
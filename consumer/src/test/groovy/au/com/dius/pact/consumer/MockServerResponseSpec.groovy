@@ -0,0 +1,79 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.core.model.OptionalBody
+import au.com.dius.pact.core.model.Response
+import au.com.dius.pact.core.model.generators.Category
+import au.com.dius.pact.core.model.generators.RandomIntGenerator
+import au.com.dius.pact.core.model.matchingrules.ArrayContainsMatcher
+import au.com.dius.pact.core.model.matchingrules.TypeMatcher
+import spock.lang.Specification
+
+class MockServerResponseSpec extends Specification {
+
+  def 'renders the status, headers and body of the response'() {
+    given:
+    def response = new Response(201, ['Content-Type': ['text/plain']], OptionalBody.body('hello'.bytes))
+
+    when:
+    def rendered = MockServerResponse.from(response)
+
+    then:
+    rendered.status == 201
+    rendered.headers == ['Content-Type': ['text/plain']]
+    new String(rendered.body) == 'hello'
+  }
+
+  def 'renders a missing body as null'() {
+    expect:
+    MockServerResponse.from(new Response(204)).body == null
+  }
+
+  def 'the body is only exposed as a copy'() {
+    given:
+    def rendered = MockServerResponse.from(new Response(200, [:], OptionalBody.body('hello'.bytes)))
+
+    when:
+    rendered.body[0] = (byte) 'j'
+
+    then:
+    new String(rendered.body) == 'hello'
+    rendered.bodySize == 5
+  }
+
+  def 'toString includes the status, headers and body size'() {
+    given:
+    def rendered = MockServerResponse.from(new Response(200, ['Content-Type': ['text/plain']],
+      OptionalBody.body('hello'.bytes)))
+
+    expect:
+    rendered.toString() == 'MockServerResponse(status=200, headers={Content-Type=[text/plain]}, body=5 bytes)'
+    MockServerResponse.from(new Response(204)).toString() == 'MockServerResponse(status=204, headers={}, body=none)'
+  }
+
+  def 'responses without generators are static'() {
+    given:
+    def response = new Response(200)
+    response.matchingRules.addCategory('body').addRule('$.id', TypeMatcher.INSTANCE)
+
+    expect:
+    MockServerResponse.isStatic(response)
+  }
+
+  def 'responses with generators are not static'() {
+    given:
+    def response = new Response(200)
+    response.generators.addGenerator(Category.BODY, '$.id', new RandomIntGenerator(0, 10))
+
+    expect:
+    !MockServerResponse.isStatic(response)
+  }
+
+  def 'responses with matching rules that have generators are not static'() {
+    given:
+    def response = new Response(200)
+    response.matchingRules.addCategory('body').addRule('$', new ArrayContainsMatcher([]))
+
+    expect:
+    !MockServerResponse.isStatic(response)
+  }
+}
@@ -0,0 +1,160 @@
+package au.com.dius.pact.consumer
+
+import au.com.dius.pact.consumer.model.KTorServerConfig
+import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.consumer.model.MockServerExecutor
+import au.com.dius.pact.consumer.model.MockServerImplementation
+import au.com.dius.pact.core.model.Consumer
+import au.com.dius.pact.core.model.OptionalBody
+import au.com.dius.pact.core.model.PactSpecVersion
+import au.com.dius.pact.core.model.Provider
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponseInteraction
+import au.com.dius.pact.core.model.RequestResponsePact
+import au.com.dius.pact.core.model.Response
+import spock.lang.Specification
+
+import static au.com.dius.pact.consumer.MockHttpServerKt.mockServer
+
+class MultiPactMockServerSpec extends Specification {
+
+  private MultiPactMockServer server = new MultiPactMockServer(MockProviderConfig.createDefault())
+
+  def setup() {
+    server.start()
+  }
+
+  def cleanup() {
+    server.stop()
+  }
+
+  private static RequestResponsePact pact(String provider, String path, String body) {
+    new RequestResponsePact(new Provider(provider), new Consumer(), [
+      new RequestResponseInteraction('test', [], new Request('GET', path),
+        new Response(200, [:], OptionalBody.body(body.bytes)))
+    ])
+  }
+
+  def 'routes requests to the pact for the path prefix'() {
+    given:
+    def serverA = server.addPact(pact('a', '/items', 'from a'), 'a')
+    def serverB = server.addPact(pact('b', '/items', 'from b'), 'b')
+
+    when:
+    def responseA = new URL(serverA.url + '/items').text
+    def responseB = new URL(serverB.url + '/items').text
+
+    then:
+    serverA.port == server.port
+    serverB.port == server.port
+    responseA == 'from a'
+    responseB == 'from b'
+    serverA.validateMockServerState(null) instanceof PactVerificationResult.Ok
+    serverB.validateMockServerState(null) instanceof PactVerificationResult.Ok
+  }
+
+  def 'keeps the state of each pact separate'() {
+    given:
+    def serverA = server.addPact(pact('a', '/items', 'from a'), 'a')
+    def serverB = server.addPact(pact('b', '/items', 'from b'), 'b')
+
+    when:
+    new URL(serverA.url + '/items').text
+
+    then:
+    serverA.validateMockServerState(null) instanceof PactVerificationResult.Ok
+    serverB.validateMockServerState(null) instanceof PactVerificationResult.ExpectedButNotReceived
+  }
+
+  def 'stopping a routed server removes its route'() {
+    given:
+    def serverA = server.addPact(pact('a', '/items', 'from a'), 'a')
+
+    when:
+    serverA.stop()
+    def serverA2 = server.addPact(pact('a', '/other', 'from a again'), 'a')
+
+    then:
+    new URL(serverA2.url + '/other').text == 'from a again'
+  }
+
+  def 'routing keys must be unique'() {
+    given:
+    server.addPact(pact('a', '/items', 'from a'), 'a')
+
+    when:
+    server.addPact(pact('a', '/items', 'from a'), 'a')
+
+    then:
+    thrown(IllegalStateException)
+  }
+
+  def 'routes requests to the pact for the Host header'() {
+    given:
+    def serverA = server.addPact(pact('a', '/items', 'from a'), 'a')
+    def serverB = server.addPact(pact('b', '/items', 'from b'), 'b')
+
+    when:
+    def response = server.responseFor(new Request('GET', '/items', [:], [Host: ['b:1234']]))
+
+    then:
+    response.status == 200
+    new String(response.body) == 'from b'
+    serverA.validateMockServerState(null) instanceof PactVerificationResult.ExpectedButNotReceived
+    serverB.validateMockServerState(null) instanceof PactVerificationResult.Ok
+  }
+
+  def 'requests that do not match a routing key fail the validation of every pact'() {
+    given:
+    def serverA = server.addPact(pact('a', '/items', 'from a'), 'a')
+    def serverB = server.addPact(pact('b', '/items', 'from b'), 'b')
+    new URL(serverA.url + '/items').text
+    new URL(serverB.url + '/items').text
+
+    when:
+    def response = server.responseFor(new Request('GET', '/c/items'))
+    def resultA = serverA.validateMockServerState(null)
+    def resultB = serverB.validateMockServerState(null)
+
+    then:
+    response.status == 500
+    resultA instanceof PactVerificationResult.Mismatches
+    resultA.mismatches*.request*.path == ['/c/items']
+    resultB instanceof PactVerificationResult.Mismatches
+    resultB.mismatches*.request*.path == ['/c/items']
+  }
+
+  def 'the mock server factory returns a routed server for a config with a routing key'() {
+    given:
+    def config = new MockProviderConfig('127.0.0.1', 0, PactSpecVersion.V3, 'http',
+      MockServerImplementation.JavaHttpServer, false, MockServerExecutor.Dispatcher, 2, new KTorServerConfig(),
+      'factory')
+
+    when:
+    def routed = mockServer(pact('c', '/items', 'from c'), config)
+    routed.start()
+    routed.waitForServer()
+    def response = new URL(routed.url + '/items').text
+
+    then:
+    routed instanceof MultiPactMockServer.RoutedMockServer
+    routed.url.endsWith('/factory')
+    response == 'from c'
+    routed.validateMockServerState(null) instanceof PactVerificationResult.Ok
+
+    cleanup:
+    routed?.stop()
+  }
+
+  def 'the mock server factory does not support routing keys with the KTor server'() {
+    given:
+    def config = new MockProviderConfig('127.0.0.1', 0, PactSpecVersion.V3, 'http',
+      MockServerImplementation.KTorServer, false, MockServerExecutor.Dispatcher, 2, new KTorServerConfig(), 'ktor')
+
+    when:
+    mockServer(pact('c', '/items', 'from c'), config)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
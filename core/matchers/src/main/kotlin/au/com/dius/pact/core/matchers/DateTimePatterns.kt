@@ -0,0 +1,116 @@
+package au.com.dius.pact.core.matchers
+
+import au.com.dius.pact.core.support.BoundedCache
+import mu.KLogging
+import java.text.Format
+import java.text.ParsePosition
+import java.text.SimpleDateFormat
+import java.time.format.DateTimeFormatter
+
+/**
+ * Lenient parser for date and time patterns, with the same behaviour as
+ * org.apache.commons.lang3.time.DateUtils.parseDate. SimpleDateFormat is not thread safe, so each thread gets its own
+ * copy of the format.
+ */
+internal class LegacyDatePattern(pattern: String) {
+  // LANG-530 - 'ZZ' is not supported by SimpleDateFormat, so the colon is removed from the zone offset instead
+  private val removeOffsetColon = pattern.endsWith("ZZ")
+  private val parsePattern = if (removeOffsetColon) pattern.dropLast(1) else pattern
+  private val format = ThreadLocal.withInitial { SimpleDateFormat(parsePattern).apply { isLenient = true } }
+
+  /**
+   * If the whole of the value can be parsed with the pattern
+   */
+  fun parses(value: String): Boolean {
+    val text = if (removeOffsetColon) OFFSET_WITH_COLON.replace(value, "$1$2") else value
+    val position = ParsePosition(0)
+    val date = format.get().parse(text, position)
+    return date != null && position.index == text.length
+  }
+
+  companion object {
+    private val OFFSET_WITH_COLON = Regex("([-+][0-9][0-9]):([0-9][0-9])$")
+
+    fun errorMessage(value: String) = "Unable to parse the date: $value"
+  }
+}
+
+/**
+ * Parser for timestamp patterns. Values are parsed with java.time.format.DateTimeFormatter, and fall back to the
+ * lenient DateUtils behaviour to keep backwards compatibility with versions < 4.1.1. Which parsers apply is worked out
+ * once for the pattern, and values are parsed without throwing exceptions.
+ */
+internal class TimestampPattern(val pattern: String) {
+  private val format: Format?
+  val legacy = LegacyDatePattern(pattern)
+
+  init {
+    var formatPattern = pattern
+    if (pattern.endsWith('Z')) {
+      formatPattern = pattern.replace('Z', 'X')
+      logger.warn {
+        """Found unsupported UTC designator in pattern '$pattern'. Replacing non quote 'Z's with 'X's
+          This is in order to offer backwards compatibility for consumers using the ISO 8601 UTC designator 'Z'
+          Please update your patterns in your pact tests as this may not be supported in future versions."""
+      }
+    }
+    format = try {
+      DateTimeFormatter.ofPattern(formatPattern).toFormat()
+    } catch (e: IllegalArgumentException) {
+      logger.warn {
+        """Pattern '$pattern' is not supported by java.time.format.DateTimeFormatter (${e.message}).
+          Values will only be parsed using org.apache.commons.lang3.time.DateUtils.
+          Please update your patterns in your pact tests as this may not be supported in future versions."""
+      }
+      null
+    }
+  }
+
+  /**
+   * If the whole of the value can be parsed with the java.time formatter for the pattern
+   */
+  fun parsesWithFormatter(value: String): Boolean {
+    if (format == null) {
+      return false
+    }
+    val position = ParsePosition(0)
+    val parsed = format.parseObject(value, position)
+    return parsed != null && position.index == value.length
+  }
+
+  /**
+   * If the whole of the value can be parsed, with either the java.time formatter or the legacy parser
+   */
+  fun parses(value: String): Boolean {
+    return if (parsesWithFormatter(value)) {
+      true
+    } else {
+      if (format != null) {
+        logger.warn {
+          """Failed to parse $value with '$pattern' using java.time.format.DateTimeFormatter.
+          Will attempt to parse using org.apache.commons.lang3.time.DateUtils to guarantee backwards
+          compatibility with versions < 4.1.1.
+          Please update your patterns in your pact tests as this may not be supported in future versions."""
+        }
+      }
+      legacy.parses(value)
+    }
+  }
+
+  companion object : KLogging()
+}
+
+/**
+ * Caches the parsers for the date, time and timestamp patterns from the matching rules. The caches are bounded, so
+ * pacts with many distinct patterns do not grow them without limit. When a pattern is evicted, the per-thread formats
+ * of its parser are released along with it.
+ */
+internal object DateTimePatterns {
+  private const val MAX_ENTRIES = 256
+  private val datePatterns = BoundedCache<String, LegacyDatePattern>(MAX_ENTRIES)
+  private val timestampPatterns = BoundedCache<String, TimestampPattern>(MAX_ENTRIES)
+
+  fun date(pattern: String): LegacyDatePattern = datePatterns.getOrPut(pattern) { LegacyDatePattern(it) }
+
+  fun timestamp(pattern: String): TimestampPattern = timestampPatterns.getOrPut(pattern) { TimestampPattern(it) }
+}
@@ -1,5 +1,6 @@
 package au.com.dius.pact.core.matchers
 
+import au.com.dius.pact.core.matchers.Matchers.FAIL_FAST_MISMATCH
 import au.com.dius.pact.core.matchers.Matchers.compareListContent
 import au.com.dius.pact.core.matchers.Matchers.compareLists
 import au.com.dius.pact.core.model.OptionalBody
@@ -28,12 +29,22 @@ object JsonBodyMatcher : BodyMatcher, KLogging() {
         BodyMatchResult(null, listOf(BodyItemMatchResult("$",
           listOf(BodyMismatch(expected.valueAsString(), null, "Expected body '${expected.value}' but was missing")))))
       else -> {
-        BodyMatchResult(null, compare(listOf("$"), JsonParser.parseString(expected.valueAsString()),
-          JsonParser.parseString(actual.valueAsString()), context))
+        BodyMatchResult(null, compare(listOf("$"), parseBody(expected), parseBody(actual), context))
       }
     }
   }
 
+  /**
+   * UTF-8 bodies are parsed straight from the bytes, otherwise the body is decoded with its charset first
+   */
+  private fun parseBody(body: OptionalBody): JsonValue {
+    return if (body.contentType.asCharset() == Charsets.UTF_8) {
+      JsonParser.parseBytes(body.orEmpty())
+    } else {
+      JsonParser.parseString(body.valueAsString())
+    }
+  }
+
   private fun valueOf(value: Any?) = when (value) {
     is String -> "'$value'"
     is JsonValue.StringValue -> "'${value.asString()}'"
@@ -64,6 +75,7 @@ object JsonBodyMatcher : BodyMatcher, KLogging() {
         compareMaps(expected, actual, path, context)
       expected is JsonValue.Array && actual is JsonValue.Array ->
         compareLists(expected, actual, path, context)
+      context.failFast && (expected is JsonValue.Object || expected is JsonValue.Array) -> FAIL_FAST_MISMATCH
       expected is JsonValue.Object && actual !is JsonValue.Object ||
         expected is JsonValue.Array && actual !is JsonValue.Array ->
         listOf(BodyItemMatchResult(path.joinToString("."),
@@ -90,6 +102,12 @@ object JsonBodyMatcher : BodyMatcher, KLogging() {
         result.addAll(compareLists(path, matcher, expectedList, actualList, context, generateDiff) {
           p, expected, actual, context -> compare(p, expected, actual, context)
         })
+        if (context.failFast && result.any { it.result.isNotEmpty() }) return FAIL_FAST_MISMATCH
+      }
+    } else if (context.failFast) {
+      if (expectedList.size != actualList.size) return FAIL_FAST_MISMATCH
+      return compareListContent(expectedList, actualList, path, context, generateDiff) {
+        p, expected, actual, context -> compare(p, expected, actual, context)
       }
     } else {
       if (expectedList.isEmpty() && actualList.isNotEmpty()) {
@@ -118,6 +136,7 @@ object JsonBodyMatcher : BodyMatcher, KLogging() {
     context: MatchingContext
   ): List<BodyItemMatchResult> {
     return if (expectedValues.isEmpty() && actualValues.isNotEmpty() && !context.allowUnexpectedKeys) {
+      if (context.failFast) return FAIL_FAST_MISMATCH
       listOf(BodyItemMatchResult(path.joinToString("."),
         listOf(BodyMismatch(expectedValues, actualValues, "Expected an empty Map but received ${valueOf(actualValues)}",
         path.joinToString("."), generateJsonDiff(expectedValues, actualValues)))))
@@ -131,13 +150,16 @@ object JsonBodyMatcher : BodyMatcher, KLogging() {
           result.addAll(Matchers.compareMaps(path, matcher, expectedEntries, actualEntries, context, generateDiff) {
             p, expected, actual -> compare(p, expected ?: JsonValue.Null, actual ?: JsonValue.Null, context)
           })
+          if (context.failFast && result.any { it.result.isNotEmpty() }) return FAIL_FAST_MISMATCH
         }
       } else {
         result.addAll(context.matchKeys(path, expectedEntries, actualEntries, generateDiff))
+        if (context.failFast && result.isNotEmpty()) return FAIL_FAST_MISMATCH
         for ((key, value) in expectedEntries) {
           val p = path + key
           if (actualEntries.containsKey(key)) {
             result.addAll(compare(p, value, actualEntries[key]!!, context))
+            if (context.failFast && result.any { it.result.isNotEmpty() }) return FAIL_FAST_MISMATCH
           }
         }
       }
@@ -151,6 +173,11 @@ object JsonBodyMatcher : BodyMatcher, KLogging() {
     actual: JsonValue,
     context: MatchingContext
   ): List<BodyItemMatchResult> {
+    if (context.failFast) {
+      val matches = if (context.matcherDefined(path)) Matchers.matches(context, path, expected, actual)
+        else expected == actual
+      return if (matches) emptyList() else FAIL_FAST_MISMATCH
+    }
     return if (context.matcherDefined(path)) {
       logger.debug { "compareValues: Matcher defined for path $path" }
       listOf(BodyItemMatchResult(path.joinToString("."),
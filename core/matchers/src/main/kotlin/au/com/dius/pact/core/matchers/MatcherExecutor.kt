@@ -24,9 +24,9 @@ import au.com.dius.pact.core.model.matchingrules.StatusCodeMatcher
 import au.com.dius.pact.core.model.matchingrules.TimeMatcher
 import au.com.dius.pact.core.model.matchingrules.TimestampMatcher
 import au.com.dius.pact.core.model.matchingrules.TypeMatcher
+import au.com.dius.pact.core.support.PatternCache
 import au.com.dius.pact.core.support.json.JsonValue
 import mu.KotlinLogging
-import org.apache.commons.lang3.time.DateUtils
 import org.apache.tika.config.TikaConfig
 import org.apache.tika.io.TikaInputStream
 import org.apache.tika.metadata.Metadata
@@ -36,9 +36,7 @@ import org.w3c.dom.Node
 import org.w3c.dom.Text
 import java.math.BigDecimal
 import java.math.BigInteger
-import java.text.ParseException
-import java.time.format.DateTimeFormatter
-import java.time.format.DateTimeParseException
+import java.util.regex.Pattern
 
 private val logger = KotlinLogging.logger {}
 private val integerRegex = Regex("^\\d+$")
@@ -126,7 +124,7 @@ fun <M : Mismatch> domatch(
   mismatchFn: MismatchFactory<M>
 ): List<M> {
   return when (matcher) {
-    is RegexMatcher -> matchRegex(matcher.regex, path, expected, actual, mismatchFn)
+    is RegexMatcher -> matchRegex(matcher.pattern, path, expected, actual, mismatchFn)
     is TypeMatcher -> matchType(path, expected, actual, mismatchFn)
     is NumberTypeMatcher -> matchNumber(matcher.numberType, path, expected, actual, mismatchFn)
     is DateMatcher -> matchDate(matcher.format, path, expected, actual, mismatchFn)
@@ -153,20 +151,45 @@ fun <M : Mismatch> domatch(
   }
 }
 
+/**
+ * Fail-fast executor for matchers. Only determines if the actual value matches the rules, without building any
+ * mismatches or descriptions.
+ */
+fun matchesRules(matchers: MatchingRuleGroup, path: List<String>, expected: Any?, actual: Any?): Boolean {
+  return if (matchers.ruleLogic == RuleLogic.AND) {
+    matchers.rules.all { matchesRule(it, path, expected, actual) }
+  } else {
+    matchers.rules.isEmpty() || matchers.rules.any { matchesRule(it, path, expected, actual) }
+  }
+}
+
+fun matchesRule(matcher: MatchingRule, path: List<String>, expected: Any?, actual: Any?): Boolean {
+  return when (matcher) {
+    is RegexMatcher -> regexMatches(matcher.pattern, expected, actual)
+    is TypeMatcher -> typeMatches(expected, actual)
+    is NumberTypeMatcher -> numberMatches(matcher.numberType, expected, actual)
+    is DateMatcher -> isCollection(actual) || DateTimePatterns.date(matcher.format).parses(safeToString(actual))
+    is TimeMatcher -> isCollection(actual) || DateTimePatterns.date(matcher.format).parses(safeToString(actual))
+    is TimestampMatcher ->
+      isCollection(actual) || DateTimePatterns.timestamp(matcher.format).parses(safeToString(actual))
+    is NullMatcher -> actual == null || actual is JsonValue.Null
+    is ArrayContainsMatcher -> true
+    is BooleanMatcher -> booleanMatches(expected, actual)
+    is MinTypeMatcher, is MaxTypeMatcher, is MinMaxTypeMatcher, is IncludeMatcher, is EqualsIgnoreOrderMatcher,
+    is MinEqualsIgnoreOrderMatcher, is MaxEqualsIgnoreOrderMatcher, is MinMaxEqualsIgnoreOrderMatcher,
+    is ContentTypeMatcher, is StatusCodeMatcher ->
+      domatch(matcher, path, expected, actual, BodyMismatchFactory).isEmpty()
+    else -> equalityMatches(expected, actual)
+  }
+}
+
 fun <M : Mismatch> matchEquality(
   path: List<String>,
   expected: Any?,
   actual: Any?,
   mismatchFactory: MismatchFactory<M>
 ): List<M> {
-  val matches = when {
-    (actual == null || actual is JsonValue.Null) && (expected == null || expected is JsonValue.Null) -> true
-    actual is Element && expected is Element -> QualifiedName(actual) == QualifiedName(expected)
-    actual is Attr && expected is Attr -> QualifiedName(actual) == QualifiedName(expected) &&
-      actual.nodeValue == expected.nodeValue
-    actual is BigDecimal && expected is BigDecimal -> actual.compareTo(expected) == 0
-    else -> actual != null && actual == expected
-  }
+  val matches = equalityMatches(expected, actual)
   logger.debug {
     "comparing ${valueOf(actual)} (${typeOf(actual)}) to " +
       "${valueOf(expected)} (${typeOf(expected)}) at $path -> $matches"
@@ -179,26 +202,49 @@ fun <M : Mismatch> matchEquality(
   }
 }
 
+fun equalityMatches(expected: Any?, actual: Any?) = when {
+  (actual == null || actual is JsonValue.Null) && (expected == null || expected is JsonValue.Null) -> true
+  actual is Element && expected is Element -> QualifiedName(actual) == QualifiedName(expected)
+  actual is Attr && expected is Attr -> QualifiedName(actual) == QualifiedName(expected) &&
+    actual.nodeValue == expected.nodeValue
+  actual is BigDecimal && expected is BigDecimal -> actual.compareTo(expected) == 0
+  else -> actual != null && actual == expected
+}
+
 fun <M : Mismatch> matchRegex(
   regex: String,
   path: List<String>,
   expected: Any?,
   actual: Any?,
   mismatchFactory: MismatchFactory<M>
+) = matchRegex(PatternCache.pattern(regex), path, expected, actual, mismatchFactory)
+
+fun <M : Mismatch> matchRegex(
+  pattern: Pattern,
+  path: List<String>,
+  expected: Any?,
+  actual: Any?,
+  mismatchFactory: MismatchFactory<M>
 ): List<M> {
-  val matches = if (actual == null || actual is JsonValue.Null) false else safeToString(actual).matches(Regex(regex))
+  val regex = pattern.pattern()
+  val matches = if (actual == null || actual is JsonValue.Null) false
+    else pattern.matcher(safeToString(actual)).matches()
   logger.debug { "comparing ${valueOf(actual)} with regexp $regex at $path -> $matches" }
-  return if (matches ||
-    expected is List<*> && actual is List<*> ||
-    expected is JsonValue.Array && actual is JsonValue.Array ||
-    expected is Map<*, *> && actual is Map<*, *> ||
-    expected is JsonValue.Object && actual is JsonValue.Object) {
+  return if (matches || bothCollections(expected, actual)) {
     emptyList()
   } else {
     listOf(mismatchFactory.create(expected, actual, "Expected ${valueOf(actual)} to match '$regex'", path))
   }
 }
 
+fun regexMatches(pattern: Pattern, expected: Any?, actual: Any?) = bothCollections(expected, actual) ||
+  actual != null && actual !is JsonValue.Null && pattern.matcher(safeToString(actual)).matches()
+
+private fun bothCollections(expected: Any?, actual: Any?) = expected is List<*> && actual is List<*> ||
+  expected is JsonValue.Array && actual is JsonValue.Array ||
+  expected is Map<*, *> && actual is Map<*, *> ||
+  expected is JsonValue.Object && actual is JsonValue.Object
+
 fun <M : Mismatch> matchType(
   path: List<String>,
   expected: Any?,
@@ -208,28 +254,10 @@ fun <M : Mismatch> matchType(
   logger.debug {
     "comparing type of ${valueOf(actual)} (${typeOf(actual)}) to ${valueOf(expected)} (${typeOf(expected)}) at $path"
   }
-  return if (expected is String && actual is String ||
-    expected is Number && actual is Number ||
-    expected is Boolean && actual is Boolean ||
-    expected is List<*> && actual is List<*> ||
-    expected is JsonValue.Array && actual is JsonValue.Array ||
-    expected is Map<*, *> && actual is Map<*, *> ||
-    expected is JsonValue.Object && actual is JsonValue.Object ||
-    expected is Element && actual is Element && QualifiedName(actual) == QualifiedName(expected) ||
-    expected is Attr && actual is Attr && QualifiedName(actual) == QualifiedName(expected)
-  ) {
+  return if (typeMatches(expected, actual)) {
     emptyList()
-  } else if (expected is JsonValue && actual is JsonValue &&
-    ((expected.isBoolean && actual.isBoolean) ||
-      (expected.isNumber && actual.isNumber) ||
-      (expected.isString && actual.isString))) {
-      emptyList()
   } else if (expected == null || expected is JsonValue.Null) {
-    if (actual == null || actual is JsonValue.Null) {
-      emptyList()
-    } else {
-      listOf(mismatchFactory.create(expected, actual, "Expected ${valueOf(actual)} to be null", path))
-    }
+    listOf(mismatchFactory.create(expected, actual, "Expected ${valueOf(actual)} to be null", path))
   } else {
     listOf(mismatchFactory.create(expected, actual,
       "Expected ${valueOf(actual)} (${typeOf(actual)}) to be the same type as " +
@@ -237,6 +265,21 @@ fun <M : Mismatch> matchType(
   }
 }
 
+fun typeMatches(expected: Any?, actual: Any?) = when {
+  expected is String && actual is String ||
+    expected is Number && actual is Number ||
+    expected is Boolean && actual is Boolean ||
+    bothCollections(expected, actual) ||
+    expected is Element && actual is Element && QualifiedName(actual) == QualifiedName(expected) ||
+    expected is Attr && actual is Attr && QualifiedName(actual) == QualifiedName(expected) -> true
+  expected is JsonValue && actual is JsonValue &&
+    ((expected.isBoolean && actual.isBoolean) ||
+      (expected.isNumber && actual.isNumber) ||
+      (expected.isString && actual.isString)) -> true
+  expected == null || expected is JsonValue.Null -> actual == null || actual is JsonValue.Null
+  else -> false
+}
+
 fun <M : Mismatch> matchNumber(
   numberType: NumberTypeMatcher.NumberType,
   path: List<String>,
@@ -250,8 +293,7 @@ fun <M : Mismatch> matchNumber(
   when (numberType) {
     NumberTypeMatcher.NumberType.NUMBER -> {
       logger.debug { "comparing type of ${valueOf(actual)} (${typeOf(actual)}) to a number at $path" }
-      if (actual is JsonValue && !actual.isNumber || actual is Attr && actual.nodeValue.matches(decimalRegex) ||
-        actual !is JsonValue && actual !is Node && actual !is Number) {
+      if (!matchNumberType(actual)) {
         return listOf(mismatchFactory.create(expected, actual,
           "Expected ${valueOf(actual)} (${typeOf(actual)}) to be a number", path))
       }
@@ -275,6 +317,17 @@ fun <M : Mismatch> matchNumber(
   return emptyList()
 }
 
+fun numberMatches(numberType: NumberTypeMatcher.NumberType, expected: Any?, actual: Any?) = when {
+  expected == null && actual != null -> false
+  numberType == NumberTypeMatcher.NumberType.NUMBER -> matchNumberType(actual)
+  numberType == NumberTypeMatcher.NumberType.INTEGER -> matchInteger(actual)
+  else -> matchDecimal(actual)
+}
+
+private fun matchNumberType(actual: Any?) = !(actual is JsonValue && !actual.isNumber ||
+  actual is Attr && actual.nodeValue.matches(decimalRegex) ||
+  actual !is JsonValue && actual !is Node && actual !is Number)
+
 fun matchDecimal(actual: Any?): Boolean {
   val result = when {
     actual == 0 -> true
@@ -282,10 +335,11 @@ fun matchDecimal(actual: Any?): Boolean {
     actual is Double -> true
     actual is BigDecimal && (actual == BigDecimal.ZERO || actual.scale() > 0) -> true
     actual is JsonValue.Decimal -> {
-      val bigDecimal = actual.toBigDecimal()
-      bigDecimal == BigDecimal.ZERO || bigDecimal.scale() > 0
+      val scale = actual.scale()
+      scale > 0 || scale == 0 && actual.isZero()
     }
-    actual is JsonValue.Integer -> decimalRegex.matches(actual.toString())
+    // Integer values never have a fraction, so only a plain zero can match the decimal regex
+    actual is JsonValue.Integer -> actual.value.chars.size == 1 && actual.value.chars[0] == '0'
     actual is Attr -> decimalRegex.matches(actual.nodeValue)
     else -> false
   }
@@ -300,7 +354,7 @@ fun matchInteger(actual: Any?): Boolean {
     actual is BigInteger -> true
     actual is JsonValue.Integer -> true
     actual is BigDecimal && actual.scale() == 0 -> true
-    actual is JsonValue.Decimal -> integerRegex.matches(actual.toString())
+    actual is JsonValue.Decimal -> actual.value.chars.isNotEmpty() && actual.value.chars.all { it in '0'..'9' }
     actual is Attr -> integerRegex.matches(actual.nodeValue)
     else -> false
   }
@@ -318,19 +372,26 @@ fun <M : Mismatch> matchBoolean(
     return listOf(mismatchFactory.create(expected, actual, "Expected ${valueOf(actual)} to be null", path))
   }
   logger.debug { "comparing type of ${valueOf(actual)} (${typeOf(actual)}) to match a boolean at $path" }
-  return when {
-    expected == null && actual == null -> emptyList()
-    actual is Boolean -> emptyList()
-    actual is JsonValue && actual.isBoolean -> emptyList()
-    actual is Attr && actual.nodeValue.matches(booleanRegex) -> emptyList()
-    actual is String && actual.matches(booleanRegex) -> emptyList()
-    actual is List<*> -> emptyList()
-    actual is Map<*, *> -> emptyList()
-    else -> listOf(mismatchFactory.create(expected, actual,
+  return if (booleanMatches(expected, actual)) {
+    emptyList()
+  } else {
+    listOf(mismatchFactory.create(expected, actual,
       "Expected ${valueOf(actual)} (${typeOf(actual)}) to match a boolean", path))
   }
 }
 
+fun booleanMatches(expected: Any?, actual: Any?) = when {
+  expected == null && actual != null -> false
+  expected == null && actual == null -> true
+  actual is Boolean -> true
+  actual is JsonValue && actual.isBoolean -> true
+  actual is Attr && actual.nodeValue.matches(booleanRegex) -> true
+  actual is String && actual.matches(booleanRegex) -> true
+  actual is List<*> -> true
+  actual is Map<*, *> -> true
+  else -> false
+}
+
 fun <M : Mismatch> matchDate(
   pattern: String,
   path: List<String>,
@@ -342,13 +403,13 @@ fun <M : Mismatch> matchDate(
   return if (isCollection(actual)) {
     emptyList()
   } else {
-    try {
-      DateUtils.parseDate(safeToString(actual), pattern)
-      emptyList<M>()
-    } catch (e: ParseException) {
+    val value = safeToString(actual)
+    if (DateTimePatterns.date(pattern).parses(value)) {
+      emptyList()
+    } else {
       listOf(mismatchFactory.create(expected, actual,
         "Expected ${valueOf(actual)} to match a date of '$pattern': " +
-          "${e.message}", path))
+          LegacyDatePattern.errorMessage(value), path))
     }
   }
 }
@@ -366,13 +427,13 @@ fun <M : Mismatch> matchTime(
   return if (isCollection(actual)) {
     emptyList()
   } else {
-    try {
-      DateUtils.parseDate(safeToString(actual), pattern)
-      emptyList<M>()
-    } catch (e: ParseException) {
+    val value = safeToString(actual)
+    if (DateTimePatterns.date(pattern).parses(value)) {
+      emptyList()
+    } else {
       listOf(mismatchFactory.create(expected, actual,
         "Expected ${valueOf(actual)} to match a time of '$pattern': " +
-          "${e.message}", path))
+          LegacyDatePattern.errorMessage(value), path))
     }
   }
 }
@@ -388,34 +449,13 @@ fun <M : Mismatch> matchDateTime(
   return if (isCollection(actual)) {
     emptyList()
   } else {
-    var newPattern = pattern
-    try {
-      if (pattern.endsWith('Z')) {
-        newPattern = pattern.replace('Z', 'X')
-        logger.warn {
-          """Found unsupported UTC designator in pattern '$pattern'. Replacing non quote 'Z's with 'X's
-          This is in order to offer backwards compatibility for consumers using the ISO 8601 UTC designator 'Z'
-          Please update your patterns in your pact tests as this may not be supported in future versions."""
-        }
-      }
-      DateTimeFormatter.ofPattern(newPattern).parse(safeToString(actual))
-      emptyList<M>()
-    } catch (e: DateTimeParseException) {
-      try {
-        logger.warn {
-          """Failed to parse ${valueOf(actual)} with '$pattern' using java.time.format.DateTimeFormatter.
-          Exception was: ${e.message}.
-          Will attempt to parse using org.apache.commons.lang3.time.DateUtils to guarantee backwards 
-          compatibility with versions < 4.1.1.
-          Please update your patterns in your pact tests as this may not be supported in future versions."""
-        }
-        DateUtils.parseDate(safeToString(actual), pattern)
-        emptyList<M>()
-      } catch (e: ParseException) {
-        listOf(mismatchFactory.create(expected, actual,
-                "Expected ${valueOf(actual)} to match a datetime of '$pattern': " +
-                        "${e.message}", path))
-      }
+    val value = safeToString(actual)
+    if (DateTimePatterns.timestamp(pattern).parses(value)) {
+      emptyList()
+    } else {
+      listOf(mismatchFactory.create(expected, actual,
+        "Expected ${valueOf(actual)} to match a datetime of '$pattern': " +
+          LegacyDatePattern.errorMessage(value), path))
     }
   }
 }
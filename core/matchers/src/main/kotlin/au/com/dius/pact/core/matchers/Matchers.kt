@@ -1,7 +1,6 @@
 package au.com.dius.pact.core.matchers
 
-import au.com.dius.pact.core.matchers.util.IndicesCombination
-import au.com.dius.pact.core.matchers.util.LargestKeyValue
+import au.com.dius.pact.core.matchers.util.BipartiteMatching
 import au.com.dius.pact.core.matchers.util.corresponds
 import au.com.dius.pact.core.matchers.util.memoizeFixed
 import au.com.dius.pact.core.matchers.util.padTo
@@ -21,7 +20,7 @@ import au.com.dius.pact.core.model.matchingrules.TypeMatcher
 import au.com.dius.pact.core.model.matchingrules.ValuesMatcher
 import au.com.dius.pact.core.model.parsePath
 import mu.KLogging
-import java.math.BigInteger
+import java.util.BitSet
 import java.util.Comparator
 import java.util.function.Predicate
 
@@ -29,6 +28,15 @@ object Matchers : KLogging() {
 
   private val intRegex = Regex("\\d+")
 
+  /**
+   * Result returned in fail-fast mode when a mismatch is found. It only indicates that there was a mismatch.
+   */
+  @JvmField
+  val FAIL_FAST_MISMATCH = listOf(BodyItemMatchResult("$",
+    listOf(BodyMismatch(null, null, "Mismatch found while matching in fail-fast mode"))))
+
+  private fun hasMismatch(results: List<BodyItemMatchResult>) = results.any { it.result.isNotEmpty() }
+
   private fun matchesToken(pathElement: String, token: PathToken): Int {
     return when (token) {
       is PathToken.Root -> if (pathElement == "$") 2 else 0
@@ -146,6 +154,19 @@ object Matchers : KLogging() {
     return domatch(matcherDef, path, expected, actual, mismatchFn)
   }
 
+  /**
+   * Fail-fast version of domatch. Only determines if the actual value matches the rules for the path.
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun matches(
+    context: MatchingContext,
+    path: List<String>,
+    expected: Any?,
+    actual: Any?,
+    pathComparator: Comparator<String> = Comparator.naturalOrder()
+  ): Boolean = matchesRules(context.selectBestMatcher(path, pathComparator), path, expected, actual)
+
   @Deprecated("Use function from MatchingContext or MatchingRuleCategory")
   @JvmStatic
   @JvmOverloads
@@ -195,18 +216,21 @@ object Matchers : KLogging() {
   ): List<BodyItemMatchResult> {
     val result = mutableListOf<BodyItemMatchResult>()
     if (matcher is ValuesMatcher) {
-      actualEntries.entries.forEach { (key, value) ->
+      for ((key, value) in actualEntries) {
         if (expectedEntries.containsKey(key)) {
           result.addAll(callback(path + key, expectedEntries[key]!!, value))
         } else {
           result.addAll(callback(path + key, expectedEntries.values.firstOrNull(), value))
         }
+        if (context.failFast && hasMismatch(result)) return FAIL_FAST_MISMATCH
       }
     } else {
       result.addAll(context.matchKeys(path, expectedEntries, actualEntries, generateDiff))
-      expectedEntries.entries.forEach { (key, value) ->
+      if (context.failFast && hasMismatch(result)) return FAIL_FAST_MISMATCH
+      for ((key, value) in expectedEntries) {
         if (actualEntries.containsKey(key)) {
           result.addAll(callback(path + key, value, actualEntries[key]))
+          if (context.failFast && hasMismatch(result)) return FAIL_FAST_MISMATCH
         }
       }
     }
@@ -223,9 +247,13 @@ object Matchers : KLogging() {
     callback: (List<String>, T, T, MatchingContext) -> List<BodyItemMatchResult>
   ): List<BodyItemMatchResult> {
     val result = mutableListOf<BodyItemMatchResult>()
-    val matchResult = domatch(matcher, path, expectedList, actualList, BodyMismatchFactory)
-    if (matchResult.isNotEmpty()) {
-      result.add(BodyItemMatchResult(path.joinToString("."), matchResult))
+    if (context.failFast) {
+      if (!matchesRule(matcher, path, expectedList, actualList)) return FAIL_FAST_MISMATCH
+    } else {
+      val matchResult = domatch(matcher, path, expectedList, actualList, BodyMismatchFactory)
+      if (matchResult.isNotEmpty()) {
+        result.add(BodyItemMatchResult(path.joinToString("."), matchResult))
+      }
     }
     if (expectedList.isNotEmpty()) {
       when (matcher) {
@@ -251,7 +279,7 @@ object Matchers : KLogging() {
           for ((index, variant) in variants.withIndex()) {
             if (index < expectedList.size) {
               val expectedValue = expectedList[index]
-              val newContext = MatchingContext(variant.second, context.allowUnexpectedKeys)
+              val newContext = MatchingContext(variant.second, context.allowUnexpectedKeys, context.failFast)
               val noneMatched = actualList.withIndex().all { (actualIndex, value) ->
                 val variantResult = callback(listOf("$"), expectedValue, value, newContext)
                 val mismatches = variantResult.flatMap { it.result }
@@ -262,6 +290,7 @@ object Matchers : KLogging() {
                 mismatches.isNotEmpty()
               }
               if (noneMatched) {
+                if (context.failFast) return FAIL_FAST_MISMATCH
                 result.add(BodyItemMatchResult(path.joinToString("."),
                   listOf(BodyMismatch(expectedValue, actualList,
                     "Variant at index $index ($expectedValue) was not found in the actual list",
@@ -270,6 +299,7 @@ object Matchers : KLogging() {
                 ))
               }
             } else {
+              if (context.failFast) return FAIL_FAST_MISMATCH
               result.add(BodyItemMatchResult(path.joinToString("."),
                 listOf(BodyMismatch(expectedList, actualList,
                   "ArrayContains: variant $index is missing from the expected list, which has " +
@@ -308,7 +338,9 @@ object Matchers : KLogging() {
   }
 
   /**
-   * Compares every permutation of actual against expected.
+   * Compares the actual elements against the expected ones ignoring their order. Each expected element needs to be
+   * paired with a different actual element that it matches, which is found with a maximum bipartite matching over the
+   * pairwise comparisons. Any actual elements left over need to match the rules for extra elements.
    */
   fun <T> compareListContentUnordered(
     expectedList: List<T>,
@@ -326,66 +358,50 @@ object Matchers : KLogging() {
       callback(path + expectedIndex.toString(), expectedList[expectedIndex], actualList[actualIndex], context)
     }.memoizeFixed(expectedList.size, actualList.size)
 
-    val longestMatch = LargestKeyValue<Int, IndicesCombination>()
-    val examinedActualIndicesCombos = HashSet<BigInteger>()
-    /**
-     * Determines if a matching permutation exists.
-     *
-     * Note: this algorithm seems to have a worst case O(n*2^n) time and O(2^n) space complexity
-     * if a lot of the actuals match a lot of the expected (e.g., if expected uses regex matching
-     * with something like [3|2|1, 2|1, 1]). Without the caching, the time complexity jumps to
-     * around O(2^2n). Caching/memoization is also used above for compare, to effectively achieve
-     * just O(n^2) calls instead of O(2^n).
-     *
-     * For most normal cases, average performance should be closer to O(n^2) time and O(n) space
-     * complexity if there aren't many duplicate matches. Best case is O(n)/O(n) if its already
-     * in order.
-     *
-     * @param expectedIndex index of expected being compared against
-     * @param actualIndices combination of remaining actual indices to compare
-     */
-    fun hasMatchingPermutation(
-      expectedIndex: Int = 0,
-      actualIndices: IndicesCombination = IndicesCombination.of(actualList.size)
-    ): Boolean {
-      return if (actualIndices.comboId in examinedActualIndicesCombos) {
-        false
-      } else {
-        examinedActualIndicesCombos.add(actualIndices.comboId)
-        longestMatch.useIfLarger(expectedIndex, actualIndices)
-        when {
-          expectedIndex < expectedList.size -> {
-            actualIndices.indices().any { actualIndex ->
-              memoizedCompare(expectedIndex, actualIndex).all {
-                it.result.isEmpty()
-              } && hasMatchingPermutation(expectedIndex + 1, actualIndices - actualIndex)
-            }
-          }
-          actualList.size > expectedList.size -> {
-            actualIndices.indices().all { actualIndex ->
-              memoizedActualCompare(actualIndex).all {
-                it.result.isEmpty()
-              }
-            }
-          }
-          else -> true
-        }
-      }
+    val hasExtraElements = actualList.size > expectedList.size
+    val matches = { expectedIndex: Int, actualIndex: Int ->
+      memoizedCompare(expectedIndex, actualIndex).all { it.result.isEmpty() }
     }
+    val extraMatches = { actualIndex: Int -> memoizedActualCompare(actualIndex).all { it.result.isEmpty() } }
 
-    return if (hasMatchingPermutation()) {
+    // Best case is when the lists are already in the same order, which only needs O(n) comparisons
+    val inOrder = expectedList.size <= actualList.size &&
+      expectedList.indices.all { matches(it, it) } &&
+      (expectedList.size until actualList.size).all(extraMatches)
+    if (inOrder) {
+      return emptyList()
+    }
+
+    val compatible = expectedList.indices.map { expectedIndex ->
+      val actualIndices = BitSet(actualList.size)
+      actualList.indices.forEach { if (matches(expectedIndex, it)) actualIndices.set(it) }
+      actualIndices
+    }
+    // Actual elements that fail the rules for extra elements must be paired with an expected element
+    val required = BitSet(actualList.size)
+    if (hasExtraElements) {
+      actualList.indices.forEach { if (!extraMatches(it)) required.set(it) }
+    }
+
+    // Pairs are never unmatched while growing the matching, so the required elements are matched first
+    val matching = BipartiteMatching(compatible, actualList.size)
+    matching.augment(required)
+    matching.augment()
+
+    val unmatchedActual = matching.unmatchedRight()
+    return if (matching.size == expectedList.size && unmatchedActual.none { required[it] }) {
       emptyList()
+    } else if (context.failFast) {
+      FAIL_FAST_MISMATCH
     } else {
-      val smallestCombo = longestMatch.value ?: IndicesCombination.of(actualList.size)
-      val longestMatch = longestMatch.key ?: 0
-
-      val remainingErrors = smallestCombo.indices().map { actualIndex ->
-        (longestMatch until expectedList.size).map { expectedIndex ->
+      val unmatchedExpected = matching.unmatchedLeft()
+      val remainingErrors = unmatchedActual.flatMap { actualIndex ->
+        unmatchedExpected.flatMap { expectedIndex ->
           memoizedCompare(expectedIndex, actualIndex).flatMap { it.result }
-        }.flatten() + if (actualList.size > expectedList.size) {
+        } + if (hasExtraElements) {
           memoizedActualCompare(actualIndex).flatMap { it.result }
         } else emptyList()
-      }.toList().flatten()
+      }
         .groupBy { it.path }
         .map { (path, mismatches) -> BodyItemMatchResult(path, mismatches) }
 
@@ -410,7 +426,9 @@ object Matchers : KLogging() {
     for ((index, value) in expectedList.withIndex()) {
       if (index < actualList.size) {
         result.addAll(callback(path + index.toString(), value, actualList[index], context))
+        if (context.failFast && hasMismatch(result)) return FAIL_FAST_MISMATCH
       } else if (!context.matcherDefined(path)) {
+        if (context.failFast) return FAIL_FAST_MISMATCH
         result.add(BodyItemMatchResult(path.joinToString("."),
           listOf(BodyMismatch(expectedList, actualList,
             "Expected $value but was missing",
@@ -7,23 +7,53 @@ import au.com.dius.pact.core.model.matchingrules.MatchingRuleGroup
 import au.com.dius.pact.core.model.matchingrules.TypeMatcher
 import au.com.dius.pact.core.model.matchingrules.ValuesMatcher
 import au.com.dius.pact.core.model.parsePath
+import au.com.dius.pact.core.support.PatternCache
 import mu.KLogging
 
-data class MatchingContext(val matchers: MatchingRuleCategory, val allowUnexpectedKeys: Boolean) {
+/**
+ * Context for matching, with the rules for the category being matched. In fail-fast mode, matching stops at the first
+ * mismatch and the results only indicate if the values matched, without any mismatch descriptions.
+ */
+data class MatchingContext @JvmOverloads constructor(
+  val matchers: MatchingRuleCategory,
+  val allowUnexpectedKeys: Boolean,
+  val failFast: Boolean = false
+) {
   fun matcherDefined(path: List<String>, pathComparator: Comparator<String> = Comparator.naturalOrder()): Boolean {
-    return resolveMatchers(path, pathComparator).filter2 { (p, rule) ->
-      if (rule.rules.any { it is ValuesMatcher }) {
-        parsePath(p).size == path.size
-      } else {
-        true
+    return if (isBodyCategory()) {
+      resolveBodyMatchers(path).any { match ->
+        match.entry.depth == path.size || match.entry.group.rules.none { it is ValuesMatcher }
       }
-    }.isNotEmpty()
+    } else {
+      resolveMatchers(path, pathComparator).filter2 { (p, rule) ->
+        if (rule.rules.any { it is ValuesMatcher }) {
+          parsePath(p).size == path.size
+        } else {
+          true
+        }
+      }.isNotEmpty()
+    }
   }
 
+  private fun isBodyCategory() = matchers.name == "body" || matchers.name == "content"
+
+  /**
+   * Trie of the parsed path expressions of the body rules. It is built on first use, once for the context, so the
+   * rules of the category must not be changed while the context is being used.
+   */
+  private val bodyRules by lazy { MatchingRuleTrie(matchers) }
+
+  /**
+   * Resolves the body rules that apply to the path by walking the trie of parsed path expressions
+   */
+  private fun resolveBodyMatchers(path: List<String>) = bodyRules.resolve(path)
+
   private fun resolveMatchers(path: List<String>, pathComparator: Comparator<String>): MatchingRuleCategory {
-    return if (matchers.name == "body" || matchers.name == "content")
-      matchers.filter { Matchers.matchesPath(it, path) > 0 }
-    else if (matchers.name == "header" || matchers.name == "query" || matchers.name == "metadata")
+    return if (isBodyCategory()) {
+      val rules = LinkedHashMap<String, MatchingRuleGroup>()
+      resolveBodyMatchers(path).forEach { rules[it.entry.key] = it.entry.group }
+      matchers.copy(matchingRules = rules)
+    } else if (matchers.name == "header" || matchers.name == "query" || matchers.name == "metadata")
       matchers.filter { key -> path.all { pathComparator.compare(key, it) == 0 } }
     else
       matchers
@@ -33,35 +63,31 @@ data class MatchingContext(val matchers: MatchingRuleCategory, val allowUnexpect
     path: List<String>,
     pathComparator: Comparator<String> = Comparator.naturalOrder()
   ): MatchingRuleGroup {
-    val matcherCategory = resolveMatchers(path, pathComparator)
-    return if (matchers.name == "body")
-      matcherCategory.filter2 { (p, rule) ->
-        if (rule.rules.any { it is ValuesMatcher }) {
-          parsePath(p).size == path.size
-        } else {
-          true
+    return if (matchers.name == "body") {
+      // Highest weight wins, then the longest path expression, then the first one defined
+      var best: MatchingRuleTrie.Match? = null
+      for (match in resolveBodyMatchers(path)) {
+        if (match.entry.depth != path.size && match.entry.group.rules.any { it is ValuesMatcher }) {
+          continue
         }
-      }.maxBy { a, b ->
-        val weightA = Matchers.calculatePathWeight(a, path)
-        val weightB = Matchers.calculatePathWeight(b, path)
-        when {
-          weightA == weightB -> when {
-            a.length > b.length -> 1
-            a.length < b.length -> -1
-            else -> 0
-          }
-          weightA > weightB -> 1
-          else -> -1
+        val current = best
+        if (current == null || match.weight > current.weight ||
+          (match.weight == current.weight && match.entry.key.length > current.entry.key.length)) {
+          best = match
         }
       }
-    else {
-      matcherCategory.matchingRules.values.first()
+      best?.entry?.group ?: MatchingRuleGroup()
+    } else {
+      resolveMatchers(path, pathComparator).matchingRules.values.first()
     }
   }
 
   fun typeMatcherDefined(path: List<String>): Boolean {
-    val resolvedMatchers = resolveMatchers(path, Comparator.naturalOrder())
-    return resolvedMatchers.allMatchingRules().any { it is TypeMatcher }
+    return if (isBodyCategory()) {
+      resolveBodyMatchers(path).any { match -> match.entry.group.rules.any { it is TypeMatcher } }
+    } else {
+      resolveMatchers(path, Comparator.naturalOrder()).allMatchingRules().any { it is TypeMatcher }
+    }
   }
 
   fun <T> matchKeys(
@@ -70,6 +96,11 @@ data class MatchingContext(val matchers: MatchingRuleCategory, val allowUnexpect
     actualEntries: Map<String, T>,
     generateDiff: () -> String
   ): List<BodyItemMatchResult> {
+    if (failFast) {
+      val keysMatch = if (allowUnexpectedKeys) actualEntries.keys.containsAll(expectedEntries.keys)
+        else expectedEntries.keys == actualEntries.keys
+      return if (keysMatch) emptyList() else Matchers.FAIL_FAST_MISMATCH
+    }
     val expectedKeys = expectedEntries.keys.sorted()
     val actualKeys = actualEntries.keys
     val actualKeysSorted = actualKeys.sorted()
@@ -95,10 +126,13 @@ data class MatchingContext(val matchers: MatchingRuleCategory, val allowUnexpect
     path: List<String>,
     pathComparator: Comparator<String> = Comparator.naturalOrder()
   ): Boolean {
-    val resolveMatchers = resolveMatchers(path, pathComparator).filter {
-      parsePath(it).size == path.size
+    return if (isBodyCategory()) {
+      resolveBodyMatchers(path).any { it.entry.depth == path.size }
+    } else {
+      resolveMatchers(path, pathComparator).filter {
+        parsePath(it).size == path.size
+      }.isNotEmpty()
     }
-    return resolveMatchers.isNotEmpty()
   }
 }
 
@@ -200,7 +234,7 @@ object Matching : KLogging() {
     return if (context.matcherDefined(emptyList())) {
       val mismatch = Matchers.domatch(context, emptyList(), expected.path, replacedActual, PathMismatchFactory)
       mismatch.firstOrNull()
-    } else if (expected.path == replacedActual || replacedActual.matches(Regex(expected.path))) null
+    } else if (expected.path == replacedActual || PatternCache.matches(expected.path, replacedActual)) null
     else PathMismatch(expected.path, replacedActual)
   }
 
@@ -13,10 +13,12 @@ object MatchingConfig {
     "application/x-www-form-urlencoded" to "au.com.dius.pact.core.matchers.FormPostBodyMatcher"
   )
 
+  private val bodyMatcherPatterns = bodyMatchers.map { Regex(it.key) to it.value }
+
   @JvmStatic
   fun lookupBodyMatcher(contentType: String?): BodyMatcher? {
     return if (contentType != null) {
-      val matcher = bodyMatchers.entries.find { contentType.matches(Regex(it.key)) }?.value
+      val matcher = bodyMatcherPatterns.find { it.first.matches(contentType) }?.second
       if (matcher != null) {
         val clazz = Class.forName(matcher).kotlin
         (clazz.objectInstance ?: clazz.createInstance()) as BodyMatcher?
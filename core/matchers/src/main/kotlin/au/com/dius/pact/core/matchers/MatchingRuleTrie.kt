@@ -0,0 +1,105 @@
+package au.com.dius.pact.core.matchers
+
+import au.com.dius.pact.core.model.PathToken
+import au.com.dius.pact.core.model.matchingrules.MatchingRuleCategory
+import au.com.dius.pact.core.model.matchingrules.MatchingRuleGroup
+import au.com.dius.pact.core.model.parsePath
+
+/**
+ * Trie of the parsed path expressions of the rules in a body matching rule category. The path expressions are parsed
+ * once when the trie is built, and the rules that apply to a path are then found by walking the trie along the path,
+ * instead of parsing and matching every path expression against the path.
+ */
+class MatchingRuleTrie(category: MatchingRuleCategory) {
+
+  /**
+   * A rule from the category, along with the number of tokens in its path expression and its position in the category
+   */
+  class Entry(val key: String, val group: MatchingRuleGroup, val depth: Int, internal val order: Int)
+
+  /**
+   * A rule that applies to a path, with the weight of the match as calculated by Matchers.calculatePathWeight
+   */
+  class Match(val entry: Entry, val weight: Int)
+
+  private class Node {
+    var root: Node? = null
+    var star: Node? = null
+    var starIndex: Node? = null
+    var fields: MutableMap<String, Node>? = null
+    var indices: MutableMap<Int, Node>? = null
+    val entries = mutableListOf<Entry>()
+
+    fun child(token: PathToken): Node = when (token) {
+      is PathToken.Root -> root ?: Node().also { root = it }
+      is PathToken.Star -> star ?: Node().also { star = it }
+      is PathToken.StarIndex -> starIndex ?: Node().also { starIndex = it }
+      is PathToken.Field -> (fields ?: HashMap<String, Node>().also { fields = it }).getOrPut(token.name) { Node() }
+      is PathToken.Index -> (indices ?: HashMap<Int, Node>().also { indices = it }).getOrPut(token.index) { Node() }
+    }
+  }
+
+  private val root = Node()
+
+  init {
+    category.matchingRules.entries.forEachIndexed { index, (key, group) ->
+      val tokens = parsePath(key)
+      val node = tokens.fold(root) { node, token -> node.child(token) }
+      node.entries.add(Entry(key, group, tokens.size, index))
+    }
+  }
+
+  /**
+   * Returns all the rules whose path expression matches the path or one of its parents, in the order they are
+   * defined in the category
+   */
+  fun resolve(path: List<String>): List<Match> {
+    val matches = mutableListOf<Match>()
+    var nodes = listOf(root)
+    var weights = listOf(1)
+    for (element in path) {
+      val nextNodes = mutableListOf<Node>()
+      val nextWeights = mutableListOf<Int>()
+      val isIndex = element.isNotEmpty() && element.all { it in '0'..'9' }
+      for (i in nodes.indices) {
+        val node = nodes[i]
+        val weight = weights[i]
+        if (element == "$") {
+          step(node.root, weight * 2, nextNodes, nextWeights, matches)
+        }
+        step(node.fields?.get(element), weight * 2, nextNodes, nextWeights, matches)
+        if (isIndex) {
+          val index = element.toIntOrNull()
+          if (index != null) {
+            step(node.indices?.get(index), weight * 2, nextNodes, nextWeights, matches)
+          }
+          step(node.starIndex, weight, nextNodes, nextWeights, matches)
+        }
+        step(node.star, weight, nextNodes, nextWeights, matches)
+      }
+      if (nextNodes.isEmpty()) {
+        break
+      }
+      nodes = nextNodes
+      weights = nextWeights
+    }
+    if (matches.size > 1) {
+      matches.sortBy { it.entry.order }
+    }
+    return matches
+  }
+
+  private fun step(
+    node: Node?,
+    weight: Int,
+    nodes: MutableList<Node>,
+    weights: MutableList<Int>,
+    matches: MutableList<Match>
+  ) {
+    if (node != null) {
+      nodes.add(node)
+      weights.add(weight)
+      node.entries.forEach { matches.add(Match(it, weight)) }
+    }
+  }
+}
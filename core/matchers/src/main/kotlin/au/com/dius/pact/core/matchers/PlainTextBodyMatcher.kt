@@ -41,7 +41,7 @@ class PlainTextBodyMatcher : BodyMatcher {
       }
     }
 
-    return if (actual.matches(Regex(regex.regex))) {
+    return if (regex.pattern.matcher(actual).matches()) {
       emptyList()
     } else {
       listOf(BodyItemMatchResult("$", listOf(BodyMismatch(expected, actual,
@@ -57,15 +57,77 @@ data class PartialRequestMatch(val problems: Map<Interaction, RequestMatchResult
 
 object RequestMismatch : RequestMatch()
 
-class RequestMatching(private val expectedInteractions: List<Interaction>) {
+/**
+ * Index of the synchronous request/response interactions by method and path, used to narrow down the interactions an
+ * actual request needs to be compared against. Interactions where the path can not be looked up literally (path
+ * matching rules, or paths that contain regular expression characters) are kept in a fallback bucket for the method,
+ * which is always included in the candidates.
+ */
+private class InteractionIndex(interactions: List<SynchronousRequestResponse>) {
+  private class Entry(val order: Int, val interaction: SynchronousRequestResponse)
+
+  private val literalPaths = HashMap<String, HashMap<String, MutableList<Entry>>>()
+  private val fallback = HashMap<String, MutableList<Entry>>()
+
+  init {
+    interactions.forEachIndexed { order, interaction ->
+      val request = interaction.request
+      val entry = Entry(order, interaction)
+      val method = request.method.toUpperCase()
+      if (request.matchingRules.rulesForCategory("path").matchingRules.isEmpty() && isLiteral(request.path)) {
+        literalPaths.getOrPut(method) { HashMap() }.getOrPut(request.path) { mutableListOf() }.add(entry)
+      } else {
+        fallback.getOrPut(method) { mutableListOf() }.add(entry)
+      }
+    }
+  }
+
+  /**
+   * Returns the interactions that could match the method and path of the actual request, in the order they were
+   * defined
+   */
+  fun candidates(actual: IRequest): List<SynchronousRequestResponse> {
+    val method = actual.method.toUpperCase()
+    val path = actual.path.replaceFirst(Matching.pathFilter, "")
+    val literal = literalPaths[method]?.get(path).orEmpty()
+    val other = fallback[method].orEmpty()
+    return when {
+      other.isEmpty() -> literal.map { it.interaction }
+      literal.isEmpty() -> other.map { it.interaction }
+      else -> (literal + other).sortedBy { it.order }.map { it.interaction }
+    }
+  }
+
+  companion object {
+    private const val REGEX_CHARACTERS = "\\.[]{}()*+?^$|"
+
+    /**
+     * If the path only matches itself when used as a regular expression
+     */
+    fun isLiteral(path: String) = path.none { it in REGEX_CHARACTERS }
+  }
+}
+
+class RequestMatching(expectedInteractions: List<Interaction>) {
+  private val index = InteractionIndex(expectedInteractions
+    .filter { it.isSynchronousRequestResponse() }
+    .map { it.asSynchronousRequestResponse()!! })
+
+  /**
+   * Finds the interaction that best matches the actual request. Only the interactions with the same method and path
+   * are considered, and these are checked in fail-fast mode. The full comparison is only done for the ones that
+   * match. If none match, the partial matches are scored by the number of parts of the request (query, cookies,
+   * headers and body) that match in fail-fast mode, and the full comparison is only done for the best one, so the
+   * mismatches can be reported.
+   */
   fun matchInteraction(actual: IRequest): RequestMatch {
-    val matches = expectedInteractions
-      .filter { it.isSynchronousRequestResponse() }
-      .map { compareRequest(it.asSynchronousRequestResponse()!!, actual) }
-    return if (matches.isEmpty())
-      RequestMismatch
-    else
-      matches.reduce { acc, match -> acc.merge(match) }
+    val candidates = index.candidates(actual).filter { methodAndPathMatches(it.request, actual) }
+    val matching = candidates.filter { partsMatch(it.request, actual) }
+    return when {
+      matching.isNotEmpty() -> matching.map { compareRequest(it, actual) }.reduce { acc, match -> acc.merge(match) }
+      candidates.isNotEmpty() -> compareRequest(candidates.maxByOrNull { partialScore(it.request, actual) }!!, actual)
+      else -> RequestMismatch
+    }
   }
 
   fun findResponse(actual: IRequest): Response? {
@@ -89,6 +151,44 @@ class RequestMatching(private val expectedInteractions: List<Interaction>) {
         return decideRequestMatch(expected, mismatches)
     }
 
+    /**
+     * Fail-fast check of the actual request against the expected one. This stops at the first part of the request
+     * that does not match, and the body is compared without building any mismatch descriptions or diffs.
+     */
+    @JvmStatic
+    fun requestMatches(expected: IRequest, actual: IRequest) =
+      methodAndPathMatches(expected, actual) && partsMatch(expected, actual)
+
+    private fun partsMatch(expected: IRequest, actual: IRequest) =
+      queryMatches(expected, actual) && cookiesMatch(expected, actual) && headersMatch(expected, actual) &&
+        bodyMatches(expected, actual)
+
+    /**
+     * Number of the parts of the request after the method and path that match in fail-fast mode
+     */
+    private fun partialScore(expected: IRequest, actual: IRequest) =
+      listOf(queryMatches(expected, actual), cookiesMatch(expected, actual), headersMatch(expected, actual),
+        bodyMatches(expected, actual)).count { it }
+
+    private fun queryMatches(expected: IRequest, actual: IRequest) =
+      Matching.matchQuery(expected, actual, failFastContext(expected, "query")).all { it.result.isEmpty() }
+
+    private fun cookiesMatch(expected: IRequest, actual: IRequest) =
+      Matching.matchCookies(expected.cookies(), actual.cookies(), failFastContext(expected, "header")) == null
+
+    private fun headersMatch(expected: IRequest, actual: IRequest) =
+      Matching.matchRequestHeaders(expected, actual, failFastContext(expected, "header")).all { it.result.isEmpty() }
+
+    private fun bodyMatches(expected: IRequest, actual: IRequest) =
+      Matching.matchBody(expected.asHttpPart(), actual.asHttpPart(), failFastContext(expected, "body")).matchedOk()
+
+    private fun failFastContext(expected: IRequest, category: String) =
+      MatchingContext(expected.matchingRules.rulesForCategory(category), false, true)
+
+    private fun methodAndPathMatches(expected: IRequest, actual: IRequest) =
+      Matching.matchMethod(expected.method, actual.method) == null &&
+        Matching.matchPath(expected, actual, failFastContext(expected, "path")) == null
+
     @JvmStatic
     fun requestMismatches(expected: IRequest, actual: IRequest): RequestMatchResult {
       logger.debug { "comparing to expected request: \n$expected" }
@@ -0,0 +1,134 @@
+package au.com.dius.pact.core.matchers.util
+
+import java.util.BitSet
+
+/**
+ * Maximum matching between two sets of indices (left and right) using the Hopcroft-Karp algorithm, which runs in
+ * O(E * sqrt(V)) time.
+ *
+ * @param edges for each left index, the set of right indices it can be matched with
+ * @param rightSize number of right indices
+ */
+class BipartiteMatching(private val edges: List<BitSet>, private val rightSize: Int) {
+  private val leftMatches = IntArray(edges.size) { UNMATCHED }
+  private val rightMatches = IntArray(rightSize) { UNMATCHED }
+  private val distance = IntArray(edges.size)
+  private val nextEdge = IntArray(edges.size)
+  private var allowed: BitSet? = null
+
+  /**
+   * Number of matched pairs
+   */
+  var size = 0
+    private set
+
+  /**
+   * Grows the matching to a maximum matching. Pairs that are already matched stay matched, so this can be called first
+   * with a subset of the right indices to make sure they are matched, and then again with all of them.
+   *
+   * @param allowedRight If not null, only these right indices are used
+   * @return the size of the matching
+   */
+  @JvmOverloads
+  fun augment(allowedRight: BitSet? = null): Int {
+    allowed = allowedRight
+    while (buildLayers()) {
+      nextEdge.fill(0)
+      for (left in edges.indices) {
+        if (leftMatches[left] == UNMATCHED && findPath(left)) {
+          size++
+        }
+      }
+    }
+    allowed = null
+    return size
+  }
+
+  /**
+   * Returns the right index matched with the left index, or -1 if it is not matched
+   */
+  fun matchOfLeft(left: Int) = leftMatches[left]
+
+  /**
+   * Returns the left index matched with the right index, or -1 if it is not matched
+   */
+  fun matchOfRight(right: Int) = rightMatches[right]
+
+  /**
+   * Left indices that are not matched, in order
+   */
+  fun unmatchedLeft() = edges.indices.filter { leftMatches[it] == UNMATCHED }
+
+  /**
+   * Right indices that are not matched, in order
+   */
+  fun unmatchedRight() = (0 until rightSize).filter { rightMatches[it] == UNMATCHED }
+
+  private fun isAllowed(right: Int) = allowed?.get(right) ?: true
+
+  /**
+   * Breadth first search from the unmatched left indices, recording the distance to each left index. Returns true if
+   * an augmenting path exists.
+   */
+  private fun buildLayers(): Boolean {
+    val queue = IntArray(edges.size)
+    var head = 0
+    var tail = 0
+    for (left in edges.indices) {
+      if (leftMatches[left] == UNMATCHED) {
+        distance[left] = 0
+        queue[tail++] = left
+      } else {
+        distance[left] = INFINITE
+      }
+    }
+
+    var found = false
+    while (head < tail) {
+      val left = queue[head++]
+      val rights = edges[left]
+      var right = rights.nextSetBit(0)
+      while (right in 0 until rightSize) {
+        if (isAllowed(right)) {
+          val next = rightMatches[right]
+          if (next == UNMATCHED) {
+            found = true
+          } else if (distance[next] == INFINITE) {
+            distance[next] = distance[left] + 1
+            queue[tail++] = next
+          }
+        }
+        right = rights.nextSetBit(right + 1)
+      }
+    }
+    return found
+  }
+
+  /**
+   * Depth first search along the layers for an augmenting path from the left index, flipping the pairs along the path
+   * if one is found
+   */
+  private fun findPath(left: Int): Boolean {
+    val rights = edges[left]
+    var right = rights.nextSetBit(nextEdge[left])
+    while (right in 0 until rightSize) {
+      nextEdge[left] = right + 1
+      if (isAllowed(right)) {
+        val next = rightMatches[right]
+        if (next == UNMATCHED || distance[next] == distance[left] + 1 && findPath(next)) {
+          leftMatches[left] = right
+          rightMatches[right] = left
+          return true
+        }
+      }
+      right = rights.nextSetBit(right + 1)
+    }
+    distance[left] = INFINITE
+    return false
+  }
+
+  companion object {
+    private const val UNMATCHED = -1
+    private const val INFINITE = Int.MAX_VALUE
+  }
+}
@@ -33,15 +33,12 @@ class IndicesCombination private constructor(val comboId: BigInteger) {
 
   /** @return sequence of actual indices in combination */
   fun indices() = sequence {
-    var index = 0
-    var factor = ONE
-
-    while (factor <= comboId) {
-      val left = factor shl 1
-      if ((comboId % left) / factor == ONE) {
+    var index = comboId.lowestSetBit
+    val length = comboId.bitLength()
+    while (index in 0 until length) {
+      if (comboId.testBit(index)) {
         yield(index)
       }
-      factor = left
       index++
     }
   }
@@ -13,6 +13,7 @@ import au.com.dius.pact.core.model.matchingrules.ValuesMatcher
 import spock.lang.Ignore
 import spock.lang.Issue
 import spock.lang.Specification
+import spock.lang.Timeout
 import spock.lang.Unroll
 import spock.util.environment.RestoreSystemProperties
 
@@ -478,6 +479,28 @@ class JsonBodyMatcherSpec extends Specification {
     '["a","A"]' | '["B","b"]' | true
   }
 
+  @Timeout(10)
+  def 'matching json bodies - with ignore-order - large lists where every element matches many others'() {
+    given:
+    def expected = (1..200).toList()
+    def actual = (2..200).toList().reverse() + ['bad']
+    def expectedBody = OptionalBody.body(expected.toString().bytes)
+    def actualBody = OptionalBody.body(('[' + actual.collect { it instanceof String ? "\"$it\"" : it }
+      .join(',') + ']').bytes)
+    context.matchers
+      .addRule('$', EqualsIgnoreOrderMatcher.INSTANCE)
+      .addRule('$[*]', TypeMatcher.INSTANCE)
+
+    when:
+    def mismatches = matcher.matchBody(expectedBody, actualBody, context)
+      .bodyResults.collectMany { it.result }
+
+    then:
+    mismatches.size() == 2
+    mismatches*.mismatch[0].matches(/Expected \[(.*)\] to match \[(.*)\] ignoring order of elements/)
+    mismatches[1].mismatch.contains('bad')
+  }
+
   def 'matching json bodies - with min-equals-ignore-order - return type mismatch on bad type'() {
     given:
     context.matchers
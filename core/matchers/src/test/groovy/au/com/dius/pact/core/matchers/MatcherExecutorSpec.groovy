@@ -177,10 +177,26 @@ class MatcherExecutorSpec extends Specification {
     '2019-11-25T13:45:00:000+0200'                | '2019-11-25T11:19:00.000Z'              | "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"    || true
 //  This is in order to keep backwards compatibility with version < 4.1.1
     '2019-11-25T13:45:00:000000+0200'             | '2019-11-25T11:19:00.000000Z'           | "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"    || true
+    '2013#12#01'                                  | '2013#12#01'                            | 'yyyy#MM#dd'                      || true
+    '2013#12#01'                                  | '2013-12-01'                            | 'yyyy#MM#dd'                      || false
 
     matcher = pattern ? new TimestampMatcher(pattern) : new TimestampMatcher()
   }
 
+  def 'timestamp matcher mismatch message'() {
+    given:
+    def matcher = new TimestampMatcher("yyyy-MM-dd'T'HH:mm:ss")
+
+    when:
+    def result = MatcherExecutorKt.domatch(matcher, path, '2019-11-25T13:45:00', '2019-11-25 13:45', mismatchFactory)
+
+    then:
+    result*.mismatch == [
+      "Expected '2019-11-25 13:45' to match a datetime of 'yyyy-MM-dd'T'HH:mm:ss': " +
+        'Unable to parse the date: 2019-11-25 13:45'
+    ]
+  }
+
   @Unroll
   def 'time matcher'() {
     expect:
@@ -0,0 +1,101 @@
+package au.com.dius.pact.core.matchers
+
+import au.com.dius.pact.core.model.matchingrules.MatchingRuleCategory
+import au.com.dius.pact.core.model.matchingrules.RegexMatcher
+import au.com.dius.pact.core.model.matchingrules.TypeMatcher
+import au.com.dius.pact.core.model.matchingrules.ValuesMatcher
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MatchingRuleTrieSpec extends Specification {
+
+  private static final Comparator<String> NATURAL = Comparator.naturalOrder()
+
+  private static final List<String> KEYS = [
+    '$', '$.*', '$.animals', '$.animals[*]', '$.animals[0]', '$.animals[*].name', '$.animals[1].name',
+    '$.animals[*].*', "\$['animals'][*]['children'][*]", '$.1', '$[*]', '$.values'
+  ]
+
+  private static MatchingRuleCategory category() {
+    def category = new MatchingRuleCategory('body')
+    KEYS.each { category.addRule(it, TypeMatcher.INSTANCE) }
+    category
+  }
+
+  @Unroll
+  def 'resolves the same rules and weights as matching each path expression - #path'() {
+    given:
+    def trie = new MatchingRuleTrie(category())
+
+    when:
+    def matches = trie.resolve(path)
+
+    then:
+    matches*.entry*.key == KEYS.findAll { Matchers.INSTANCE.matchesPath(it, path) > 0 }
+    matches.every { it.weight == Matchers.INSTANCE.calculatePathWeight(it.entry.key, path) }
+    matches.every { it.entry.depth == Matchers.INSTANCE.matchesPath(it.entry.key, path) }
+
+    where:
+
+    path << [
+      [],
+      ['$'],
+      ['$', 'animals'],
+      ['$', 'animals', '0'],
+      ['$', 'animals', '1', 'name'],
+      ['$', 'animals', '2', 'children', '0', 'name'],
+      ['$', '1'],
+      ['$', 'other', 'values'],
+      ['other']
+    ]
+  }
+
+  def 'selects the best matcher from the trie'() {
+    given:
+    def category = new MatchingRuleCategory('body')
+    category.addRule('$.animals[*].name', TypeMatcher.INSTANCE)
+    category.addRule('$.animals[1].name', new RegexMatcher('\\w+'))
+    category.addRule('$.animals[*]', TypeMatcher.INSTANCE)
+    category.addRule('$.values', ValuesMatcher.INSTANCE)
+    def context = new MatchingContext(category, true)
+
+    expect:
+    context.selectBestMatcher(['$', 'animals', '1', 'name'], NATURAL).rules == [new RegexMatcher('\\w+')]
+    context.selectBestMatcher(['$', 'animals', '0', 'name'], NATURAL).rules == [TypeMatcher.INSTANCE]
+    context.selectBestMatcher(['$', 'animals', '0', 'age'], NATURAL).rules == [TypeMatcher.INSTANCE]
+    context.selectBestMatcher(['$', 'values', 'a'], NATURAL).rules.empty
+    context.matcherDefined(['$', 'values'], NATURAL)
+    !context.matcherDefined(['$', 'values', 'a'], NATURAL)
+    context.directMatcherDefined(['$', 'animals', '0'], NATURAL)
+    !context.directMatcherDefined(['$', 'animals', '0', 'age'], NATURAL)
+    context.typeMatcherDefined(['$', 'animals', '0', 'age'])
+  }
+
+  def 'a new context uses the rules added after an earlier context was used'() {
+    given:
+    def category = new MatchingRuleCategory('body')
+    category.addRule('$.a', TypeMatcher.INSTANCE)
+    def context = new MatchingContext(category, true)
+
+    when:
+    def definedBefore = context.matcherDefined(['$', 'b'], NATURAL)
+    category.addRule('$.b', TypeMatcher.INSTANCE)
+    def definedAfter = new MatchingContext(category, true).matcherDefined(['$', 'b'], NATURAL)
+
+    then:
+    context.matcherDefined(['$', 'a'], NATURAL)
+    !definedBefore
+    definedAfter
+  }
+
+  def 'contexts for the same rules are equal'() {
+    given:
+    def category = category()
+    def context = new MatchingContext(category, true)
+    context.matcherDefined(['$', 'animals'], NATURAL)
+
+    expect:
+    context == new MatchingContext(category, true)
+    context.hashCode() == new MatchingContext(category, true).hashCode()
+  }
+}
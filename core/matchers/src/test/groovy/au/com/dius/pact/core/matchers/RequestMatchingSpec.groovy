@@ -8,6 +8,7 @@ import au.com.dius.pact.core.model.RequestResponseInteraction
 import au.com.dius.pact.core.model.Response
 import au.com.dius.pact.core.model.matchingrules.RegexMatcher
 import spock.lang.Specification
+import spock.lang.Unroll
 
 class RequestMatchingSpec extends Specification {
 
@@ -260,4 +261,83 @@ class RequestMatchingSpec extends Specification {
     !actualResponse
   }
 
+  @Unroll
+  def 'fail-fast request matching agrees with the full comparison - #description'() {
+    given:
+    def actual = request.copy()
+    modify(actual)
+
+    expect:
+    RequestMatching.requestMatches(request, actual) == RequestMatching.requestMismatches(request, actual).matchedOk()
+    RequestMatching.requestMatches(request, actual) == matches
+
+    where:
+    description          | modify                                                                   | matches
+    'same request'       | { }                                                                      | true
+    'different method'   | { it.method = 'POST' }                                                   | false
+    'different path'     | { it.path = '/other' }                                                   | false
+    'different query'    | { it.query = [q: ['p']] }                                                | false
+    'missing header'     | { it.headers = [:] }                                                     | false
+    'different body'     | { it.body = OptionalBody.body('{"test": false}'.bytes) }                 | false
+    'body with extra'    | { it.body = OptionalBody.body('{"test": true, "extra": false}'.bytes) }  | false
+    'body of wrong type' | { it.body = OptionalBody.body('[true]'.bytes) }                          | false
+  }
+
+  def 'returns the full mismatches for partial matches when no interaction matches'() {
+    given:
+    def actual = request.copy()
+    actual.body = OptionalBody.body('{"test": false}'.bytes)
+    interaction = new RequestResponseInteraction('test interaction', testState, request, response, null)
+
+    when:
+    def result = new RequestMatching([interaction]).matchInteraction(actual)
+
+    then:
+    result instanceof PartialRequestMatch
+    result.problems[interaction].mismatches*.description() == [
+      'Expected true (True) but received false (False)'
+    ]
+  }
+
+  def 'only reports the mismatches for the closest partial match'() {
+    given:
+    def headerMismatch = new Request('GET', '/items', [:], [Accept: ['text/plain']],
+      OptionalBody.body('{"a": 1}'.bytes))
+    def headerAndBodyMismatch = new Request('GET', '/items', [:], [Accept: ['text/plain']],
+      OptionalBody.body('{"a": 2}'.bytes))
+    def interaction1 = new RequestResponseInteraction('header and body', [], headerAndBodyMismatch, new Response(200))
+    def interaction2 = new RequestResponseInteraction('header', [], headerMismatch, new Response(200))
+    def actual = new Request('GET', '/items', [:], [Accept: ['application/json']], OptionalBody.body('{"a": 1}'.bytes))
+
+    when:
+    def result = new RequestMatching([interaction1, interaction2]).matchInteraction(actual)
+
+    then:
+    result instanceof PartialRequestMatch
+    result.problems.keySet() == [interaction2] as Set
+  }
+
+  def 'selects the interaction by method and path from many interactions'() {
+    given:
+    def interactions = (1..50).collectMany { i ->
+      [
+        new RequestResponseInteraction("get $i", [], new Request('GET', "/items/$i"), new Response(200)),
+        new RequestResponseInteraction("post $i", [], new Request('POST', "/items/$i"), new Response(201))
+      ]
+    }
+    def regexRequest = new Request('GET', '/items/[a-z]+')
+    def matcherRequest = new Request('GET', '/other')
+    matcherRequest.matchingRules.addCategory('path').addRule(new RegexMatcher('/other/\\d+'))
+    interactions << new RequestResponseInteraction('regex path', [], regexRequest, new Response(202))
+    interactions << new RequestResponseInteraction('path matcher', [], matcherRequest, new Response(203))
+    def matching = new RequestMatching(interactions)
+
+    expect:
+    matching.findResponse(new Request('GET', '/items/20')).status == 200
+    matching.findResponse(new Request('post', 'http://localhost:1234/items/20')).status == 201
+    matching.findResponse(new Request('GET', '/items/abc')).status == 202
+    matching.findResponse(new Request('GET', '/other/100')).status == 203
+    matching.findResponse(new Request('DELETE', '/items/20')) == null
+    matching.matchInteraction(new Request('GET', '/items/100')) == RequestMismatch.INSTANCE
+  }
 }
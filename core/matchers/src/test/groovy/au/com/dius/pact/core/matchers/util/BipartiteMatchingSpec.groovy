@@ -0,0 +1,70 @@
+package au.com.dius.pact.core.matchers.util
+
+import spock.lang.Specification
+
+class BipartiteMatchingSpec extends Specification {
+
+  private static List<BitSet> edges(List<List<Integer>> adjacency) {
+    adjacency.collect { rights ->
+      def bits = new BitSet()
+      rights.each { bits.set(it) }
+      bits
+    }
+  }
+
+  def 'finds a maximum matching where a greedy choice would fail'() {
+    given:
+    def matching = new BipartiteMatching(edges([[0, 1], [0], [1, 2]]), 3)
+
+    when:
+    def size = matching.augment()
+
+    then:
+    size == 3
+    matching.matchOfLeft(0) == 1
+    matching.matchOfLeft(1) == 0
+    matching.matchOfLeft(2) == 2
+    matching.unmatchedLeft().empty
+    matching.unmatchedRight().empty
+  }
+
+  def 'reports the unmatched indices'() {
+    given:
+    def matching = new BipartiteMatching(edges([[0], [0], [0, 1]]), 3)
+
+    when:
+    def size = matching.augment()
+
+    then:
+    size == 2
+    matching.unmatchedLeft().size() == 1
+    matching.unmatchedRight() == [2]
+  }
+
+  def 'keeps the allowed right indices matched when the matching is grown'() {
+    given:
+    def matching = new BipartiteMatching(edges([[0, 1], [0, 1]]), 3)
+    def required = new BitSet()
+    required.set(1)
+
+    when:
+    def requiredSize = matching.augment(required)
+    def size = matching.augment()
+
+    then:
+    requiredSize == 1
+    size == 2
+    matching.matchOfRight(1) != -1
+    matching.unmatchedRight() == [2]
+  }
+
+  def 'handles large dense graphs'() {
+    given:
+    def n = 500
+    def matching = new BipartiteMatching(edges((0..<n).collect { (it..<n).toList() }), n)
+
+    expect:
+    matching.augment() == n
+    (0..<n).every { matching.matchOfLeft(it) == it }
+  }
+}
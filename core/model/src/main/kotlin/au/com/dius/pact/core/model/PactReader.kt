@@ -36,7 +36,6 @@ import org.apache.http.message.BasicHeader
 import org.apache.http.util.EntityUtils
 import java.io.File
 import java.io.InputStream
-import java.io.InputStreamReader
 import java.io.Reader
 import java.net.URI
 import java.net.URL
@@ -388,7 +387,7 @@ object DefaultPactReader : PactReader, KLogging() {
     if (source is ClosurePactSource) {
       return loadFile(source.closure.get(), options)
     } else if (source is FileSource) {
-      return source.file.bufferedReader().use { JsonParser.parseReader(it).downcast<JsonValue.Object>() to source }
+      return JsonParser.parseFile(source.file).downcast<JsonValue.Object>() to source
     } else if (source is InputStream || source is Reader || source is File) {
       return loadPactFromFile(source)
     } else if (source is BrokerUrlSource) {
@@ -411,7 +410,7 @@ object DefaultPactReader : PactReader, KLogging() {
       return loadPactFromClasspath(source.substring(CLASSPATH_URI_START.length))
     } else if (source is String && fileExists(source)) {
       val file = File(source)
-      return file.bufferedReader().use { JsonParser.parseReader(it).downcast<JsonValue.Object>() to FileSource(file) }
+      return JsonParser.parseFile(file).downcast<JsonValue.Object>() to FileSource(file)
     } else {
       try {
         return JsonParser.parseString(source.toString()).downcast<JsonValue.Object>() to UnknownPactSource
@@ -425,11 +424,9 @@ object DefaultPactReader : PactReader, KLogging() {
 
   private fun loadPactFromFile(source: Any): Pair<JsonValue.Object, PactSource> {
     return when (source) {
-      is InputStream -> JsonParser.parseReader(InputStreamReader(source)).downcast<JsonValue.Object>() to
-        InputStreamPactSource
+      is InputStream -> JsonParser.parseStream(source).downcast<JsonValue.Object>() to InputStreamPactSource
       is Reader -> JsonParser.parseReader(source).downcast<JsonValue.Object>() to ReaderPactSource
-      is File -> source.bufferedReader().use {
-        JsonParser.parseReader(it).downcast<JsonValue.Object>() } to FileSource(source)
+      is File -> JsonParser.parseFile(source).downcast<JsonValue.Object>() to FileSource(source)
       else -> throw IllegalArgumentException("loadPactFromFile expects either an InputStream, Reader or File. " +
         "Got a ${source.javaClass.name} instead")
     }
@@ -449,7 +446,7 @@ object DefaultPactReader : PactReader, KLogging() {
       .invoke(s3Client, bucket, key)
     val s3ObjectClass = Class.forName("com.amazonaws.services.s3.model.S3Object")
     val objectContent = s3ObjectClass.getMethod("getObjectContent").invoke(s3Pact) as InputStream
-    return JsonParser.parseReader(InputStreamReader(objectContent)).downcast<JsonValue.Object>() to S3PactSource(source)
+    return JsonParser.parseStream(objectContent).downcast<JsonValue.Object>() to S3PactSource(source)
   }
 
   private fun loadPactFromClasspath(source: String): Pair<JsonValue.Object, PactSource> {
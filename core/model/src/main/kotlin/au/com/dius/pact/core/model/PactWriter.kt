@@ -4,15 +4,16 @@ import au.com.dius.pact.core.support.Json
 import au.com.dius.pact.core.support.json.JsonException
 import au.com.dius.pact.core.support.json.JsonParser
 import au.com.dius.pact.core.support.json.JsonValue
+import au.com.dius.pact.core.support.json.JsonWriter
 import com.github.michaelbull.result.Ok
 import com.github.michaelbull.result.Result
 import com.github.michaelbull.result.expect
 import mu.KLogging
 import java.io.ByteArrayOutputStream
 import java.io.File
+import java.io.OutputStreamWriter
 import java.io.PrintWriter
 import java.io.RandomAccessFile
-import java.io.StringWriter
 import java.nio.charset.Charset
 
 enum class PactWriteMode {
@@ -61,12 +62,13 @@ object DefaultPactWriter : PactWriter, KLogging() {
   override fun writePact(pact: Pact, writer: PrintWriter, pactSpecVersion: PactSpecVersion) : Result<Int, Throwable> {
     pact.sortInteractions()
     val json = if (pactSpecVersion == PactSpecVersion.V4) {
-      Json.prettyPrint(pact.asV4Pact().expect { "Failed to upcast to a V4 pact" }.toMap(pactSpecVersion))
+      Json.toJson(pact.asV4Pact().expect { "Failed to upcast to a V4 pact" }.toMap(pactSpecVersion))
     } else {
-      Json.prettyPrint(pact.toMap(pactSpecVersion))
+      Json.toJson(pact.toMap(pactSpecVersion))
     }
-    writer.println(json)
-    return Ok(json.toByteArray().size)
+    val count = JsonWriter.write(json, writer, true)
+    writer.println()
+    return Ok(count.toInt())
   }
 
   /**
@@ -98,13 +100,13 @@ object DefaultPactWriter : PactWriter, KLogging() {
           throw InvalidPactException(result.message)
         }
         raf.seek(0)
-        val swriter = StringWriter()
-        val writer = PrintWriter(swriter)
+        val bytes = ByteArrayOutputStream()
+        val writer = PrintWriter(OutputStreamWriter(bytes, Charsets.UTF_8))
         writePact(result.result!!, writer, pactSpecVersion)
-        val bytes = swriter.toString().toByteArray()
-        raf.setLength(bytes.size.toLong())
-        raf.write(bytes)
-        Ok(bytes.size)
+        writer.flush()
+        raf.setLength(bytes.size().toLong())
+        raf.write(bytes.toByteArray())
+        Ok(bytes.size())
       } finally {
         lock.release()
         raf.close()
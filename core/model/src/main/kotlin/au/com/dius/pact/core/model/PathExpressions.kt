@@ -1,6 +1,8 @@
 package au.com.dius.pact.core.model
 
+import au.com.dius.pact.core.support.BoundedCache
 import org.apache.commons.collections4.iterators.PushbackIterator
+import java.util.Collections
 
 const val PATH_SPECIAL_CHARS = "'[].@ \t\n"
 const val EXP_ALLOWED_SPECIAL_CHARS = "-_:#@"
@@ -13,153 +15,218 @@ sealed class PathToken {
   object StarIndex : PathToken()
 }
 
-// string_path -> [^']+
-fun stringPath(chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String, index: Int) {
-  var id = String()
-  var c: IndexedValue<Char> = IndexedValue(index, ' ')
+fun validPathCharacter(c: Char) = c.isLetterOrDigit() || EXP_ALLOWED_SPECIAL_CHARS.contains(c)
 
-  while (c.value != '\'' && chars.hasNext()) {
-    c = chars.next()
+/**
+ * Single pass tokenizer for path expressions, working directly on the character indexes of the expression
+ */
+private class PathExpressionParser(private val path: String, var index: Int = 0) {
+  val tokens = ArrayList<PathToken>()
 
-    if (c.value == '\'') {
-      if (id.isEmpty()) {
-        throw InvalidPathExpression("Empty strings are not allowed in path expression \"$path\" at index ${c.index}")
+  // parse_path_exp -> $ path_exp | empty
+  fun parse(): List<PathToken> {
+    if (path.isNotEmpty()) {
+      if (path[0] == '$') {
+        tokens.add(PathToken.Root)
+        index = 1
+        pathExp()
       } else {
-        break
+        throw InvalidPathExpression("Path expression \"$path\" does not start with a root marker \"$\"")
       }
-    } else {
-      id += c.value
     }
+    return tokens
   }
 
-  if (c.value == '\'') {
-    tokens.add(PathToken.Field(id))
-  } else {
-    throw InvalidPathExpression("Unterminated string in path expression \"$path\" at index ${c.index}")
+  // path_exp -> (dot-path | bracket-path)*
+  fun pathExp() {
+    while (index < path.length) {
+      val start = index++
+      when (val ch = path[start]) {
+        '.' -> pathIdentifier(start)
+        '[' -> bracketPath(start)
+        else -> throw InvalidPathExpression("Expected a \".\" or \"[\" instead of \"$ch\" in path expression " +
+          "\"$path\" at index $start")
+      }
+    }
   }
-}
 
-// index_path -> [0-9]+
-fun indexPath(
-  ch: IndexedValue<Char>,
-  chars: PushbackIterator<IndexedValue<Char>>,
-  tokens: MutableList<PathToken>,
-  path: String
-) {
-  var id = String() + ch.value
-  loop@ while (chars.hasNext()) {
-    val c = chars.next()
-    when {
-      c.value.isDigit() -> id += c.value
-      c.value == ']' -> {
-        chars.pushback(c)
-        break@loop
+  // path_identifier -> identifier | *
+  fun pathIdentifier(dotIndex: Int) {
+    if (index < path.length) {
+      val ch = path[index]
+      when {
+        ch == '*' -> {
+          index++
+          tokens.add(PathToken.Star)
+        }
+        validPathCharacter(ch) -> identifier()
+        else -> throw InvalidPathExpression("Expected either a \"*\" or path identifier in path expression " +
+          "\"$path\" at index $index")
       }
-      else -> throw InvalidPathExpression("Indexes can only consist of numbers or a \"*\", found \"${c.value}\" " +
-        "instead in path expression \"$path\" at index ${c.index}")
+    } else {
+      throw InvalidPathExpression("Expected a path after \".\" in path expression \"$path\" at index $dotIndex")
     }
   }
 
-  tokens.add(PathToken.Index(id.toInt()))
-}
+  // identifier -> a-zA-Z0-9\-:+
+  fun identifier() {
+    val start = index++
+    while (index < path.length) {
+      val c = path[index]
+      if (validPathCharacter(c)) {
+        index++
+      } else if (c == '.' || c == '\'' || c == '[') {
+        break
+      } else {
+        throw InvalidPathExpression("\"$c\" is not allowed in an identifier in path expression \"$path\"" +
+          " at index $index")
+      }
+    }
+    tokens.add(PathToken.Field(path.substring(start, index)))
+  }
 
-// identifier -> a-zA-Z0-9\-:+
-fun identifier(ch: Char, chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String) {
-  var id = String() + ch
-  while (chars.hasNext()) {
-    val c = chars.next()
-    if (validPathCharacter(c.value)) {
-      id += c.value
-    } else if (c.value == '.' || c.value == '\'' || c.value == '[') {
-      chars.pushback(c)
-      break
+  // bracket_path -> (string_path | index | *) ]
+  @Suppress("ThrowsCount")
+  fun bracketPath(bracketIndex: Int) {
+    if (index < path.length) {
+      val chIndex = index
+      val ch = path[index++]
+      when {
+        ch == '\'' -> stringPath(chIndex)
+        ch.isDigit() -> indexPath(chIndex)
+        ch == '*' -> tokens.add(PathToken.StarIndex)
+        ch == ']' -> throw InvalidPathExpression("Empty bracket expressions are not allowed in path expression " +
+          "\"$path\" at index $chIndex")
+        else -> throw InvalidPathExpression("Indexes can only consist of numbers or a \"*\", found \"$ch\" " +
+          "instead in path expression \"$path\" at index $chIndex")
+      }
+      if (index < path.length) {
+        val c = path[index]
+        if (c != ']') {
+          throw InvalidPathExpression("Unterminated brackets, found \"$c\" instead of \"]\" " +
+            "in path expression \"$path\" at index $index")
+        }
+        index++
+      } else {
+        throw InvalidPathExpression("Unterminated brackets in path expression \"$path\" at index $chIndex")
+      }
     } else {
-      throw InvalidPathExpression("\"${c.value}\" is not allowed in an identifier in path expression \"$path\"" +
-        " at index ${c.index}")
+      throw InvalidPathExpression("Expected a \"'\" (single quote) or a digit in path expression \"$path\"" +
+        " after index $bracketIndex")
     }
   }
-  tokens.add(PathToken.Field(id))
-}
 
-// path_identifier -> identifier | *
-fun pathIdentifier(
-  chars: PushbackIterator<IndexedValue<Char>>,
-  tokens: MutableList<PathToken>,
-  path: String,
-  index: Int
-) {
-  if (chars.hasNext()) {
-    val ch = chars.next()
+  // string_path -> [^']+
+  fun stringPath(quoteIndex: Int) {
+    val end = path.indexOf('\'', index)
     when {
-      ch.value == '*' -> tokens.add(PathToken.Star)
-      validPathCharacter(ch.value) ->
-        identifier(ch.value, chars, tokens, path)
-      else -> throw InvalidPathExpression("Expected either a \"*\" or path identifier in path expression \"$path\"" +
-        " at index ${ch.index}")
+      end < 0 -> throw InvalidPathExpression("Unterminated string in path expression \"$path\" at index " +
+        "${maxOf(quoteIndex, path.length - 1)}")
+      end == index -> throw InvalidPathExpression("Empty strings are not allowed in path expression \"$path\" " +
+        "at index $end")
+      else -> {
+        tokens.add(PathToken.Field(path.substring(index, end)))
+        index = end + 1
+      }
     }
-  } else {
-    throw InvalidPathExpression("Expected a path after \".\" in path expression \"$path\" at index $index")
   }
-}
-
-fun validPathCharacter(c: Char) = c.isLetterOrDigit() || EXP_ALLOWED_SPECIAL_CHARS.contains(c)
 
-// bracket_path -> (string_path | index | *) ]
-@Suppress("ThrowsCount")
-fun bracketPath(chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String, index: Int) {
-  if (chars.hasNext()) {
-    val ch = chars.next()
-    when {
-      ch.value == '\'' -> stringPath(chars, tokens, path, ch.index)
-      ch.value.isDigit() -> indexPath(ch, chars, tokens, path)
-      ch.value == '*' -> tokens.add(PathToken.StarIndex)
-      ch.value == ']' -> throw InvalidPathExpression("Empty bracket expressions are not allowed in path expression " +
-        "\"$path\" at index ${ch.index}")
-      else -> throw InvalidPathExpression("Indexes can only consist of numbers or a \"*\", found \"${ch.value}\" " +
-        "instead in path expression \"$path\" at index ${ch.index}")
-    }
-    if (chars.hasNext()) {
-      val c = chars.next()
-      if (c.value != ']') {
-        throw InvalidPathExpression("Unterminated brackets, found \"${c.value}\" instead of \"]\" " +
-          "in path expression \"$path\" at index ${c.index}")
+  // index_path -> [0-9]+
+  fun indexPath(start: Int) {
+    while (index < path.length) {
+      val c = path[index]
+      when {
+        c.isDigit() -> index++
+        c == ']' -> break
+        else -> throw InvalidPathExpression("Indexes can only consist of numbers or a \"*\", found \"$c\" " +
+          "instead in path expression \"$path\" at index $index")
       }
-    } else {
-      throw InvalidPathExpression("Unterminated brackets in path expression \"$path\" at index ${ch.index}")
     }
-  } else {
-    throw InvalidPathExpression("Expected a \"'\" (single quote) or a digit in path expression \"$path\"" +
-      " after index $index")
+    tokens.add(PathToken.Index(path.substring(start, index).toInt()))
   }
 }
 
-// path_exp -> (dot-path | bracket-path)*
-fun pathExp(chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String) {
-  while (chars.hasNext()) {
-    val next = chars.next()
-    when (next.value) {
-      '.' -> pathIdentifier(chars, tokens, path, next.index)
-      '[' -> bracketPath(chars, tokens, path, next.index)
-      else -> throw InvalidPathExpression("Expected a \".\" or \"[\" instead of \"${next.value}\" in path expression " +
-        "\"$path\" at index ${next.index}")
-    }
+/**
+ * Bounded cache of parsed path expressions. The same few path expressions from the matching rules and generators are
+ * parsed over and over while matching, so the immutable token lists are kept for reuse. Once the cache is full,
+ * expressions that have not been used recently are evicted.
+ */
+private object PathExpressionCache {
+  private const val MAX_ENTRIES = 1024
+  private val cache = BoundedCache<String, List<PathToken>>(MAX_ENTRIES)
+
+  fun lookup(path: String): List<PathToken> = cache.getOrPut(path) {
+    Collections.unmodifiableList(PathExpressionParser(it).parse())
   }
 }
 
-fun parsePath(path: String): List<PathToken> {
-  val tokens = ArrayList<PathToken>()
+/**
+ * Parses the path expression into a list of tokens. The returned list is immutable, and may be shared with other
+ * callers parsing the same expression.
+ */
+fun parsePath(path: String): List<PathToken> = PathExpressionCache.lookup(path)
 
-  // parse_path_exp -> $ path_exp | empty
-  val chars = PushbackIterator(path.iterator().withIndex())
-  if (chars.hasNext()) {
-    val ch = chars.next()
-    if (ch.value == '$') {
-      tokens.add(PathToken.Root)
-      pathExp(chars, tokens, path)
-    } else {
-      throw InvalidPathExpression("Path expression \"$path\" does not start with a root marker \"$\"")
+/**
+ * Runs the parser from the position of the iterator, then moves the iterator past the characters that were parsed
+ */
+private fun parseFrom(
+  chars: PushbackIterator<IndexedValue<Char>>,
+  tokens: MutableList<PathToken>,
+  path: String,
+  offset: Int = 0,
+  rule: PathExpressionParser.() -> Unit
+) {
+  val position = if (chars.hasNext()) chars.next().also { chars.pushback(it) }.index else path.length
+  val parser = PathExpressionParser(path, position - offset)
+  try {
+    parser.rule()
+  } finally {
+    tokens.addAll(parser.tokens)
+    while (chars.hasNext()) {
+      val c = chars.next()
+      if (c.index >= parser.index) {
+        chars.pushback(c)
+        break
+      }
     }
   }
-
-  return tokens
 }
+
+// string_path -> [^']+
+@Deprecated("Use parsePath", replaceWith = ReplaceWith("parsePath"))
+fun stringPath(chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String, index: Int) =
+  parseFrom(chars, tokens, path) { stringPath(index) }
+
+// index_path -> [0-9]+
+@Deprecated("Use parsePath", replaceWith = ReplaceWith("parsePath"))
+fun indexPath(
+  ch: IndexedValue<Char>,
+  chars: PushbackIterator<IndexedValue<Char>>,
+  tokens: MutableList<PathToken>,
+  path: String
+) = parseFrom(chars, tokens, path) { indexPath(ch.index) }
+
+// identifier -> a-zA-Z0-9\-:+
+@Deprecated("Use parsePath", replaceWith = ReplaceWith("parsePath"))
+@Suppress("UNUSED_PARAMETER")
+fun identifier(ch: Char, chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String) =
+  parseFrom(chars, tokens, path, 1) { identifier() }
+
+// path_identifier -> identifier | *
+@Deprecated("Use parsePath", replaceWith = ReplaceWith("parsePath"))
+fun pathIdentifier(
+  chars: PushbackIterator<IndexedValue<Char>>,
+  tokens: MutableList<PathToken>,
+  path: String,
+  index: Int
+) = parseFrom(chars, tokens, path) { pathIdentifier(index) }
+
+// bracket_path -> (string_path | index | *) ]
+@Deprecated("Use parsePath", replaceWith = ReplaceWith("parsePath"))
+fun bracketPath(chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String, index: Int) =
+  parseFrom(chars, tokens, path) { bracketPath(index) }
+
+// path_exp -> (dot-path | bracket-path)*
+@Deprecated("Use parsePath", replaceWith = ReplaceWith("parsePath"))
+fun pathExp(chars: PushbackIterator<IndexedValue<Char>>, tokens: MutableList<PathToken>, path: String) =
+  parseFrom(chars, tokens, path) { pathExp() }
@@ -1,6 +1,7 @@
 package au.com.dius.pact.core.model
 
 import au.com.dius.pact.core.support.Json
+import au.com.dius.pact.core.support.PatternCache
 import au.com.dius.pact.core.support.Utils.jsonSafeValue
 import au.com.dius.pact.core.support.json.JsonValue
 import org.apache.commons.lang3.builder.HashCodeBuilder
@@ -34,7 +35,7 @@ data class ProviderState @JvmOverloads constructor(val name: String?, val params
     }
   }
 
-  fun matches(state: String) = name?.matches(Regex(state)) ?: false
+  fun matches(state: String) = name?.matches(PatternCache.regex(state)) ?: false
 
   fun uniqueKey(): Int {
     val builder = HashCodeBuilder().append(name)
@@ -6,10 +6,12 @@ import au.com.dius.pact.core.model.generators.ArrayContainsGenerator
 import au.com.dius.pact.core.model.generators.Generator
 import au.com.dius.pact.core.model.generators.NullGenerator
 import au.com.dius.pact.core.model.generators.lookupGenerator
+import au.com.dius.pact.core.support.PatternCache
 import au.com.dius.pact.core.support.json.JsonValue
 import au.com.dius.pact.core.support.json.map
 import mu.KLogging
 import java.lang.RuntimeException
+import java.util.regex.Pattern
 
 /**
  * Logic to use to combine rules
@@ -280,6 +282,11 @@ object BooleanMatcher : MatchingRule {
  * Regular Expression Matcher
  */
 data class RegexMatcher @JvmOverloads constructor (val regex: String, val example: String? = null) : MatchingRule {
+  /**
+   * Compiled pattern for the regex. This is shared with all other matchers that use the same regex.
+   */
+  val pattern: Pattern by lazy { PatternCache.pattern(regex) }
+
   override fun toMap(spec: PactSpecVersion) = mapOf("match" to "regex", "regex" to regex)
   override fun validateForVersion(pactVersion: PactSpecVersion) = emptyList<String>()
 }
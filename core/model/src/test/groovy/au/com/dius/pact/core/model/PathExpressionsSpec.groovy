@@ -1,5 +1,7 @@
 package au.com.dius.pact.core.model
 
+import kotlin.collections.IndexedValue
+import org.apache.commons.collections4.iterators.PushbackIterator
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -166,4 +168,41 @@ class PathExpressionsSpec extends Specification {
     '$[-1]'    | 'Indexes can only consist of numbers or a "*", found "-" instead in path expression "$[-1]" at index 2'
   }
 
+  def 'parsed path expressions are cached'() {
+    when:
+    def tokens1 = PathExpressionsKt.parsePath('$.a[*].b')
+    def tokens2 = PathExpressionsKt.parsePath('$.a[*].b')
+
+    then:
+    tokens1 == [PathToken.Root.INSTANCE, new PathToken.Field('a'), PathToken.StarIndex.INSTANCE,
+                new PathToken.Field('b')]
+    tokens1.is(tokens2)
+  }
+
+  def 'parsed path expressions can not be modified'() {
+    when:
+    PathExpressionsKt.parsePath('$.a').add(PathToken.Star.INSTANCE)
+
+    then:
+    thrown(UnsupportedOperationException)
+    PathExpressionsKt.parsePath('$.a') == [PathToken.Root.INSTANCE, new PathToken.Field('a')]
+  }
+
+  def 'the deprecated parser functions delegate to the parser and leave the iterator after the parsed characters'() {
+    given:
+    def path = "\$.a['b c'][2].d"
+    def chars = new PushbackIterator((0..<path.length()).collect { new IndexedValue(it, path.charAt(it)) }.iterator())
+    def tokens = []
+
+    when:
+    chars.next()
+    PathExpressionsKt.pathIdentifier(chars, tokens, path, chars.next().index)
+    def bracket = chars.next()
+    PathExpressionsKt.bracketPath(chars, tokens, path, bracket.index)
+    PathExpressionsKt.pathExp(chars, tokens, path)
+
+    then:
+    tokens == [new PathToken.Field('a'), new PathToken.Field('b c'), new PathToken.Index(2), new PathToken.Field('d')]
+    !chars.hasNext()
+  }
 }
@@ -0,0 +1,160 @@
+package au.com.dius.pact.core.support.json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Source that decodes a UTF-8 encoded JSON document directly from a byte buffer. Characters outside the Basic
+ * Multilingual Plane are returned as a surrogate pair, and malformed byte sequences are replaced with U+FFFD.
+ */
+public class ByteBufferSource extends JsonSource {
+  private static final int REPLACEMENT_CHAR = 0xFFFD;
+  private static final int NONE = -2;
+
+  private final ByteBuffer buffer;
+  private int pendingLowSurrogate = NONE;
+
+  public ByteBufferSource(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  public ByteBufferSource(byte[] bytes) {
+    this(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Creates a source for the file. The file is read into a heap buffer and closed before this returns. Files are not
+   * memory-mapped, as the mapping keeps the file open until it is garbage collected, and on Windows that stops the
+   * pact file from being overwritten.
+   */
+  public static ByteBufferSource fromFile(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return fromChannel(channel);
+    }
+  }
+
+  /**
+   * Creates a source for the remaining contents of the file channel, read into a heap buffer. The channel can be
+   * closed once this returns.
+   */
+  public static ByteBufferSource fromChannel(FileChannel channel) throws IOException {
+    long size = channel.size() - channel.position();
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("File is too large to parse (" + size + " bytes)");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+      // keep reading until the buffer is full
+    }
+    buffer.flip();
+    return new ByteBufferSource(buffer);
+  }
+
+  public int nextChar() {
+    int c;
+    if (pendingLowSurrogate != NONE) {
+      c = pendingLowSurrogate;
+      pendingLowSurrogate = NONE;
+    } else if (!buffer.hasRemaining()) {
+      return EOF;
+    } else {
+      byte b = buffer.get();
+      c = b >= 0 ? b : decode(b);
+    }
+    updatePosition(c);
+    return c;
+  }
+
+  public int peekNextChar() {
+    if (pendingLowSurrogate != NONE) {
+      return pendingLowSurrogate;
+    } else if (!buffer.hasRemaining()) {
+      return EOF;
+    } else {
+      int position = buffer.position();
+      byte b = buffer.get(position);
+      if (b >= 0) {
+        return b;
+      } else {
+        buffer.position(position + 1);
+        int c = decode(b);
+        buffer.position(position);
+        pendingLowSurrogate = NONE;
+        return c;
+      }
+    }
+  }
+
+  public void advance(int count) {
+    for (int i = 0; i < count; i++) {
+      if (nextChar() == EOF) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Decodes a multi-byte sequence, given the lead byte which has already been consumed. If the sequence encodes a
+   * supplementary character, the high surrogate is returned and the low surrogate is stored for the next read.
+   */
+  private int decode(byte lead) {
+    if ((lead & 0xE0) == 0xC0) {
+      int b1 = continuation();
+      if (b1 < 0) {
+        return REPLACEMENT_CHAR;
+      }
+      return ((lead & 0x1F) << 6) | b1;
+    } else if ((lead & 0xF0) == 0xE0) {
+      int b1 = continuation();
+      if (b1 < 0) {
+        return REPLACEMENT_CHAR;
+      }
+      int b2 = continuation();
+      if (b2 < 0) {
+        return REPLACEMENT_CHAR;
+      }
+      return ((lead & 0x0F) << 12) | (b1 << 6) | b2;
+    } else if ((lead & 0xF8) == 0xF0) {
+      int b1 = continuation();
+      if (b1 < 0) {
+        return REPLACEMENT_CHAR;
+      }
+      int b2 = continuation();
+      if (b2 < 0) {
+        return REPLACEMENT_CHAR;
+      }
+      int b3 = continuation();
+      if (b3 < 0) {
+        return REPLACEMENT_CHAR;
+      }
+      int codePoint = ((lead & 0x07) << 18) | (b1 << 12) | (b2 << 6) | b3;
+      if (!Character.isSupplementaryCodePoint(codePoint)) {
+        return REPLACEMENT_CHAR;
+      }
+      pendingLowSurrogate = Character.lowSurrogate(codePoint);
+      return Character.highSurrogate(codePoint);
+    } else {
+      return REPLACEMENT_CHAR;
+    }
+  }
+
+  /**
+   * Consumes the next continuation byte and returns its 6 payload bits, or -1 if the next byte is not a
+   * continuation byte (in which case it is not consumed)
+   */
+  private int continuation() {
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+    int position = buffer.position();
+    byte b = buffer.get(position);
+    if ((b & 0xC0) != 0x80) {
+      return -1;
+    }
+    buffer.position(position + 1);
+    return b & 0x3F;
+  }
+}
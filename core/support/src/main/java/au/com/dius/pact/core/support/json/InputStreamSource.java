@@ -1,10 +1,23 @@
 package au.com.dius.pact.core.support.json;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 
-public class InputStreamSource extends ReaderSource {
+/**
+ * Source that reads a UTF-8 encoded JSON document from an input stream. The stream is read fully into a byte buffer
+ * which is then decoded by the lexer as it goes.
+ */
+public class InputStreamSource extends ByteBufferSource {
   public InputStreamSource(InputStream source) {
-    super(new InputStreamReader(source));
+    super(readAll(source));
+  }
+
+  private static byte[] readAll(InputStream source) {
+    try {
+      return source.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
@@ -1,8 +1,22 @@
 package au.com.dius.pact.core.support.json;
 
+/**
+ * Source of characters for the JSON lexer. Characters are returned as primitive ints (UTF-16 code units), with
+ * {@link #EOF} returned at the end of the document, so no boxing is required per character.
+ */
 public abstract class JsonSource {
-  public abstract Character nextChar();
-  public abstract Character peekNextChar();
+  public static final int EOF = -1;
+
+  /**
+   * Consumes and returns the next character, or EOF if the end of the document has been reached
+   */
+  public abstract int nextChar();
+
+  /**
+   * Returns the next character without consuming it, or EOF if the end of the document has been reached
+   */
+  public abstract int peekNextChar();
+
   public abstract void advance(int count);
 
   protected long line = 0;
@@ -15,4 +29,13 @@ public abstract class JsonSource {
   public String documentPointer() {
     return String.format("%d:%d", line + 1, character + 1);
   }
+
+  protected void updatePosition(int ch) {
+    if (ch == '\n') {
+      character = 0;
+      line++;
+    } else {
+      character++;
+    }
+  }
 }
@@ -4,72 +4,50 @@ import java.io.IOException;
 import java.io.Reader;
 
 public class ReaderSource extends JsonSource {
+  private static final int BUFFER_SIZE = 8192;
+
   private Reader reader;
-  private Character buffer = null;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int index = 0;
+  private int length = 0;
 
   public ReaderSource(Reader reader) {
     this.reader = reader;
   }
 
-  public Character nextChar() {
-    if (buffer != null) {
-      Character c = buffer;
-      buffer = null;
-      return c;
-    } else {
-      int next = 0;
-      try {
-        next = reader.read();
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-      if (next == -1) {
-        return null;
-      } else {
-        if (next == '\n') {
-          character = 0;
-          line++;
-        } else {
-          character++;
-        }
-        return (char) next;
-      }
+  public int nextChar() {
+    if (index >= length && !fill()) {
+      return EOF;
     }
+    char c = buffer[index++];
+    updatePosition(c);
+    return c;
   }
 
-  public Character peekNextChar() {
-    if (buffer == null) {
-      int next = 0;
-      try {
-        next = reader.read();
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-      if (next == -1) {
-        buffer = null;
-      } else {
-        buffer = (char) next;
-      }
+  public int peekNextChar() {
+    if (index >= length && !fill()) {
+      return EOF;
     }
-    return buffer;
+    return buffer[index];
   }
 
   public void advance(int count) {
-    int charsToSkip = count;
-    if (buffer != null) {
-      buffer = null;
-      charsToSkip = count - 1;
+    for (int i = 0; i < count; i++) {
+      if (nextChar() == EOF) {
+        break;
+      }
     }
+  }
+
+  private boolean fill() {
     try {
-      for (int i = 0; i < charsToSkip; i++) {
-        int next = reader.read();
-        if (next == '\n') {
-          character = 0;
-          line++;
-        } else {
-          character++;
-        }
-      }
+      int read;
+      do {
+        read = reader.read(buffer, 0, buffer.length);
+      } while (read == 0);
+      index = 0;
+      length = Math.max(read, 0);
+      return read > 0;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
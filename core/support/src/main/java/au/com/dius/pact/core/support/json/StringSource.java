@@ -8,23 +8,19 @@ public class StringSource extends JsonSource {
     this.json = json;
   }
 
-  public Character nextChar() {
-    Character c = peekNextChar();
-    if (c != null) {
-      if (c == '\n') {
-        character = 0;
-        line++;
-      } else {
-        character++;
-      }
-      index++;
+  public int nextChar() {
+    if (index >= json.length) {
+      return EOF;
+    } else {
+      char c = json[index++];
+      updatePosition(c);
+      return c;
     }
-    return c;
   }
 
-  public Character peekNextChar() {
+  public int peekNextChar() {
     if (index >= json.length) {
-      return null;
+      return EOF;
     } else {
       return json[index];
     }
@@ -32,13 +28,7 @@ public class StringSource extends JsonSource {
 
   public void advance(int count) {
     for (int i = 0; i < count; i++) {
-      char next = json[index++];
-      if (next == '\n') {
-        character = 0;
-        line++;
-      } else {
-        character++;
-      }
+      updatePosition(json[index++]);
     }
   }
 }
@@ -0,0 +1,118 @@
+package au.com.dius.pact.core.support
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.locks.ReentrantLock
+import java.util.regex.Pattern
+
+/**
+ * Bounded, thread-safe cache. Lookups only read a ConcurrentHashMap and never take a lock. Once the cache is full,
+ * entries are evicted with the clock (second chance) algorithm: an entry that has been read since the last sweep is
+ * kept for another round, otherwise it is removed. Values are computed outside of any lock, so two threads may compute
+ * the same value at the same time, and the first one to be added is kept.
+ */
+class BoundedCache<K : Any, V : Any>(private val maxEntries: Int) {
+  private class Entry<V>(val value: V) {
+    @Volatile
+    var referenced = false
+  }
+
+  private val entries = ConcurrentHashMap<K, Entry<V>>()
+  private val clock = ConcurrentLinkedQueue<K>()
+  private val evictionLock = ReentrantLock()
+
+  /**
+   * Returns the cached value for the key, computing and caching it if it is not in the cache
+   */
+  fun getOrPut(key: K, compute: (K) -> V): V {
+    val cached = entries[key]
+    if (cached != null) {
+      if (!cached.referenced) {
+        cached.referenced = true
+      }
+      return cached.value
+    }
+    val entry = Entry(compute(key))
+    val existing = entries.putIfAbsent(key, entry)
+    if (existing != null) {
+      return existing.value
+    }
+    clock.add(key)
+    if (entries.size > maxEntries) {
+      evict()
+    }
+    return entry.value
+  }
+
+  /**
+   * Sweeps the clock until the cache is back within its bounds. Only one thread sweeps at a time, other threads that
+   * find the cache over its bounds while a sweep is running just return, and the sweeping thread checks the size again
+   * once it is done.
+   */
+  private fun evict() {
+    while (entries.size > maxEntries && evictionLock.tryLock()) {
+      val removed = try {
+        sweep()
+      } finally {
+        evictionLock.unlock()
+      }
+      if (!removed) {
+        break
+      }
+    }
+  }
+
+  /**
+   * Runs the clock hand over the entries, at most twice round. Returns if any entries were removed.
+   */
+  private fun sweep(): Boolean {
+    var removed = false
+    var steps = 2 * clock.size
+    while (entries.size > maxEntries && steps-- > 0) {
+      val key = clock.poll() ?: break
+      val entry = entries[key] ?: continue
+      if (entry.referenced) {
+        entry.referenced = false
+        clock.add(key)
+      } else if (entries.remove(key, entry)) {
+        removed = true
+      }
+    }
+    return removed
+  }
+
+  val size: Int
+    get() = entries.size
+
+  fun clear() {
+    entries.clear()
+    clock.clear()
+  }
+}
+
+/**
+ * Shared cache of compiled regular expressions. Compiled patterns are immutable and thread-safe, so the same instance
+ * is used by all threads and mock servers that match against the same expression.
+ */
+object PatternCache {
+  private const val MAX_ENTRIES = 512
+  private val cache = BoundedCache<String, Regex>(MAX_ENTRIES)
+
+  /**
+   * Returns the compiled regex for the expression
+   */
+  @JvmStatic
+  fun regex(regex: String): Regex = cache.getOrPut(regex) { Regex(it) }
+
+  /**
+   * Returns the compiled pattern for the expression
+   */
+  @JvmStatic
+  fun pattern(regex: String): Pattern = regex(regex).toPattern()
+
+  /**
+   * If the whole of the value matches the regular expression
+   */
+  @JvmStatic
+  fun matches(regex: String, value: CharSequence) = regex(regex).matches(value)
+}
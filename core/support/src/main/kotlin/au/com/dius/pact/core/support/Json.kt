@@ -4,6 +4,7 @@ import au.com.dius.pact.core.support.Json.toJson
 import au.com.dius.pact.core.support.json.JsonParser
 import au.com.dius.pact.core.support.json.JsonToken
 import au.com.dius.pact.core.support.json.JsonValue
+import au.com.dius.pact.core.support.json.JsonWriter
 import org.apache.commons.lang3.text.translate.AggregateTranslator
 import org.apache.commons.lang3.text.translate.EntityArrays
 import org.apache.commons.lang3.text.translate.JavaUnicodeEscaper
@@ -82,7 +83,7 @@ object Json {
   fun prettyPrint(json: String) = JsonParser.parseString(json).prettyPrint()
 
   fun prettyPrint(json: String, writer: Writer) {
-    writer.write(JsonParser.parseString(json).prettyPrint())
+    JsonWriter.write(JsonParser.parseString(json), writer, true)
   }
 
   fun prettyPrint(obj: Any) = toJson(obj).prettyPrint()
@@ -0,0 +1,213 @@
+package au.com.dius.pact.core.support.json
+
+/**
+ * Insertion ordered map used for parsed JSON objects. Most objects in pact files only have a few entries, so the keys
+ * and values are kept in two small arrays and looked up with a linear scan, which takes a lot less memory than a
+ * LinkedHashMap. Once the map grows past MAX_COMPACT_SIZE entries, it switches over to a LinkedHashMap.
+ */
+internal class CompactJsonMap : AbstractMutableMap<String, JsonValue>() {
+  private var keys = arrayOfNulls<String>(INITIAL_CAPACITY)
+  private var values = arrayOfNulls<JsonValue>(INITIAL_CAPACITY)
+  private var count = 0
+  private var map: LinkedHashMap<String, JsonValue>? = null
+
+  override val size: Int
+    get() = map?.size ?: count
+
+  override fun isEmpty() = size == 0
+
+  override fun containsKey(key: String): Boolean {
+    val map = this.map
+    return map?.containsKey(key) ?: (indexOf(key) >= 0)
+  }
+
+  override fun get(key: String): JsonValue? {
+    val map = this.map
+    return if (map != null) {
+      map[key]
+    } else {
+      val index = indexOf(key)
+      if (index >= 0) values[index] else null
+    }
+  }
+
+  override fun put(key: String, value: JsonValue): JsonValue? {
+    val map = this.map
+    if (map != null) {
+      return map.put(key, value)
+    }
+
+    val index = indexOf(key)
+    if (index >= 0) {
+      val previous = values[index]
+      values[index] = value
+      return previous
+    }
+
+    if (count == MAX_COMPACT_SIZE) {
+      val newMap = LinkedHashMap<String, JsonValue>(MAX_COMPACT_SIZE * 4)
+      for (i in 0 until count) {
+        newMap[keys[i]!!] = values[i]!!
+      }
+      newMap[key] = value
+      this.map = newMap
+      keys = EMPTY_KEYS
+      values = EMPTY_VALUES
+      count = 0
+    } else {
+      if (count == keys.size) {
+        keys = keys.copyOf(count * 2)
+        values = values.copyOf(count * 2)
+      }
+      keys[count] = key
+      values[count++] = value
+    }
+    return null
+  }
+
+  override fun remove(key: String): JsonValue? {
+    val map = this.map
+    if (map != null) {
+      return map.remove(key)
+    }
+
+    val index = indexOf(key)
+    return if (index >= 0) {
+      val previous = values[index]
+      removeAt(index)
+      previous
+    } else {
+      null
+    }
+  }
+
+  override fun clear() {
+    map = null
+    keys = arrayOfNulls(INITIAL_CAPACITY)
+    values = arrayOfNulls(INITIAL_CAPACITY)
+    count = 0
+  }
+
+  override val entries: MutableSet<MutableMap.MutableEntry<String, JsonValue>>
+    get() = map?.entries ?: EntrySet()
+
+  private fun indexOf(key: String): Int {
+    for (i in 0 until count) {
+      if (keys[i] == key) {
+        return i
+      }
+    }
+    return -1
+  }
+
+  private fun removeAt(index: Int) {
+    val moved = count - index - 1
+    if (moved > 0) {
+      System.arraycopy(keys, index + 1, keys, index, moved)
+      System.arraycopy(values, index + 1, values, index, moved)
+    }
+    count--
+    keys[count] = null
+    values[count] = null
+  }
+
+  private inner class EntrySet : AbstractMutableSet<MutableMap.MutableEntry<String, JsonValue>>() {
+    override val size: Int
+      get() = count
+
+    override fun add(element: MutableMap.MutableEntry<String, JsonValue>): Boolean {
+      throw UnsupportedOperationException("Entries can not be added to the entry set of a map")
+    }
+
+    override fun iterator() = object : MutableIterator<MutableMap.MutableEntry<String, JsonValue>> {
+      private var index = 0
+      private var last = -1
+
+      override fun hasNext() = index < count
+
+      override fun next(): MutableMap.MutableEntry<String, JsonValue> {
+        if (index >= count) {
+          throw NoSuchElementException()
+        }
+        last = index++
+        return Entry(last)
+      }
+
+      override fun remove() {
+        check(last >= 0) { "next() has not been called" }
+        removeAt(last)
+        index = last
+        last = -1
+      }
+    }
+  }
+
+  private inner class Entry(private val index: Int) : MutableMap.MutableEntry<String, JsonValue> {
+    override val key: String = keys[index]!!
+    override val value: JsonValue
+      get() = values[index]!!
+
+    override fun setValue(newValue: JsonValue): JsonValue {
+      val previous = values[index]!!
+      values[index] = newValue
+      return previous
+    }
+
+    override fun equals(other: Any?) = other is Map.Entry<*, *> && key == other.key && value == other.value
+
+    override fun hashCode() = key.hashCode() xor value.hashCode()
+
+    override fun toString() = "$key=$value"
+  }
+
+  companion object {
+    const val MAX_COMPACT_SIZE = 8
+    private const val INITIAL_CAPACITY = 4
+    private val EMPTY_KEYS = arrayOfNulls<String>(0)
+    private val EMPTY_VALUES = arrayOfNulls<JsonValue>(0)
+  }
+}
+
+/**
+ * Bounded table of the object keys that have been parsed, shared across all documents. Pact files repeat the same
+ * keys over and over, so parsed keys are looked up here first and the same String instance is reused instead of
+ * allocating a new one for every occurrence. Each slot holds the last key that hashed to it, so the table never grows.
+ */
+internal object JsonKeyTable {
+  private const val TABLE_SIZE = 4096
+  private const val MAX_KEY_LENGTH = 64
+  private val table = arrayOfNulls<String>(TABLE_SIZE)
+
+  fun intern(chars: CharArray): String {
+    if (chars.size > MAX_KEY_LENGTH) {
+      return String(chars)
+    }
+
+    // Same hash as String.hashCode(), so it can be checked against the cached hash of the existing key
+    var hash = 0
+    for (c in chars) {
+      hash = 31 * hash + c.toInt()
+    }
+    val slot = (hash xor (hash ushr 16)) and (TABLE_SIZE - 1)
+    val existing = table[slot]
+    if (existing != null && existing.hashCode() == hash && sameChars(existing, chars)) {
+      return existing
+    }
+
+    val key = String(chars)
+    table[slot] = key
+    return key
+  }
+
+  private fun sameChars(key: String, chars: CharArray): Boolean {
+    if (key.length != chars.size) {
+      return false
+    }
+    for (i in chars.indices) {
+      if (key[i] != chars[i]) {
+        return false
+      }
+    }
+    return true
+  }
+}
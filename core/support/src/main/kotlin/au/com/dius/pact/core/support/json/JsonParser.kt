@@ -3,6 +3,7 @@ package au.com.dius.pact.core.support.json
 import com.github.michaelbull.result.Err
 import com.github.michaelbull.result.Ok
 import com.github.michaelbull.result.Result
+import java.io.File
 import java.io.InputStream
 import java.io.Reader
 import java.util.ArrayDeque
@@ -59,65 +60,47 @@ sealed class JsonToken(val chars: CharArray) {
 class JsonLexer(json: JsonSource) : BaseJsonLexer(json) {
   fun nextToken(): Result<JsonToken?, JsonException> {
     val next = json.nextChar()
-    if (next != null) {
+    if (next != JsonSource.EOF) {
       return when {
-        next.isWhitespace() -> {
+        Character.isWhitespace(next) -> {
           skipWhitespace()
           Ok(JsonToken.Whitespace)
         }
-        next == '-' || next.isDigit() -> scanNumber(next)
-        next == 't' -> scanTrue()
-        next == 'f' -> scanFalse()
-        next == 'n' -> scanNull()
-        next == '"' -> scanString()
-        next == '[' -> Ok(JsonToken.ArrayStart)
-        next == ']' -> Ok(JsonToken.ArrayEnd)
-        next == '{' -> Ok(JsonToken.ObjectStart)
-        next == '}' -> Ok(JsonToken.ObjectEnd)
-        next == ',' -> Ok(JsonToken.Comma)
-        next == ':' -> Ok(JsonToken.Colon)
+        next == '-'.toInt() || Character.isDigit(next) -> scanNumber(next)
+        next == 't'.toInt() -> scanTrue()
+        next == 'f'.toInt() -> scanFalse()
+        next == 'n'.toInt() -> scanNull()
+        next == '"'.toInt() -> scanString()
+        next == '['.toInt() -> Ok(JsonToken.ArrayStart)
+        next == ']'.toInt() -> Ok(JsonToken.ArrayEnd)
+        next == '{'.toInt() -> Ok(JsonToken.ObjectStart)
+        next == '}'.toInt() -> Ok(JsonToken.ObjectEnd)
+        next == ','.toInt() -> Ok(JsonToken.Comma)
+        next == ':'.toInt() -> Ok(JsonToken.Colon)
         else -> unexpectedCharacter(next)
       }
     }
     return Ok(null)
   }
 
-  private fun unexpectedCharacter(next: Char?) = if (next == null)
+  private fun unexpectedCharacter(next: Int) = if (next == JsonSource.EOF)
     Err(JsonException("Invalid JSON (${documentPointer()}), unexpected end of the JSON document"))
   else
-    Err(JsonException("Invalid JSON (${documentPointer()}), found unexpected character '$next'"))
-
-  private fun scanNull(): Result<JsonToken?, JsonException> {
-    var next = json.nextChar()
-    if (next == null || next != 'u') return unexpectedCharacter(next)
-    next = json.nextChar()
-    if (next == null || next != 'l') return unexpectedCharacter(next)
-    next = json.nextChar()
-    if (next == null || next != 'l') return unexpectedCharacter(next)
-    return Ok(JsonToken.Null)
-  }
+    Err(JsonException("Invalid JSON (${documentPointer()}), found unexpected character '${next.toChar()}'"))
 
-  private fun scanFalse(): Result<JsonToken?, JsonException> {
-    var next = json.nextChar()
-    if (next == null || next != 'a') return unexpectedCharacter(next)
-    next = json.nextChar()
-    if (next == null || next != 'l') return unexpectedCharacter(next)
-    next = json.nextChar()
-    if (next == null || next != 's') return unexpectedCharacter(next)
-    next = json.nextChar()
-    if (next == null || next != 'e') return unexpectedCharacter(next)
-    return Ok(JsonToken.False)
+  private fun scanLiteral(rest: String, token: JsonToken): Result<JsonToken?, JsonException> {
+    for (ch in rest) {
+      val next = json.nextChar()
+      if (next != ch.toInt()) return unexpectedCharacter(next)
+    }
+    return Ok(token)
   }
 
-  private fun scanTrue(): Result<JsonToken?, JsonException> {
-    var next = json.nextChar()
-    if (next == null || next != 'r') return unexpectedCharacter(next)
-    next = json.nextChar()
-    if (next == null || next != 'u') return unexpectedCharacter(next)
-    next = json.nextChar()
-    if (next == null || next != 'e') return unexpectedCharacter(next)
-    return Ok(JsonToken.True)
-  }
+  private fun scanNull() = scanLiteral("ull", JsonToken.Null)
+
+  private fun scanFalse() = scanLiteral("alse", JsonToken.False)
+
+  private fun scanTrue() = scanLiteral("rue", JsonToken.True)
 
   fun documentPointer() = json.documentPointer()
 }
@@ -146,6 +129,28 @@ object JsonParser {
     return parse(ReaderSource(reader))
   }
 
+  /**
+   * Parses a UTF-8 encoded JSON document directly from the bytes, without decoding it into a string first
+   */
+  @Throws(JsonException::class)
+  @JvmStatic
+  fun parseBytes(json: ByteArray): JsonValue {
+    if (json.isNotEmpty()) {
+      return parse(ByteBufferSource(json))
+    } else {
+      throw JsonException("Json document is empty")
+    }
+  }
+
+  /**
+   * Parses a UTF-8 encoded JSON file. The file is read in one go and closed before it is parsed.
+   */
+  @Throws(JsonException::class)
+  @JvmStatic
+  fun parseFile(file: File): JsonValue {
+    return parse(ByteBufferSource.fromFile(file.toPath()))
+  }
+
   private fun parse(json: JsonSource): JsonValue {
     val lexer = JsonLexer(json)
     var token = nextTokenOrThrow(lexer)
@@ -177,7 +182,7 @@ object JsonParser {
   }
 
   private fun parseObject(lexer: JsonLexer): JsonValue.Object {
-    val map = mutableMapOf<String, JsonValue>()
+    val map = CompactJsonMap()
     var token: JsonToken?
 
     do {
@@ -186,7 +191,7 @@ object JsonParser {
         val key = when (token) {
           null -> throw JsonException(
             "Invalid Json document (${lexer.documentPointer()}) - found end of document while parsing object")
-          is JsonToken.StringValue -> String(token.chars)
+          is JsonToken.StringValue -> JsonKeyTable.intern(token.chars)
           else -> throw JsonException(
             "Invalid Json document (${lexer.documentPointer()}) - expected a string but found unexpected characters " +
               "'${token.chars}'")
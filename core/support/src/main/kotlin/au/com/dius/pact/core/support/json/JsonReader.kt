@@ -0,0 +1,281 @@
+package au.com.dius.pact.core.support.json
+
+import com.github.michaelbull.result.Err
+import com.github.michaelbull.result.Ok
+import java.io.File
+import java.io.InputStream
+import java.io.Reader
+
+/**
+ * Events returned by the JsonReader pull parser
+ */
+enum class JsonEvent {
+  START_OBJECT,
+  END_OBJECT,
+  START_ARRAY,
+  END_ARRAY,
+  FIELD_NAME,
+  VALUE_STRING,
+  VALUE_INTEGER,
+  VALUE_DECIMAL,
+  VALUE_TRUE,
+  VALUE_FALSE,
+  VALUE_NULL,
+  END_DOCUMENT
+}
+
+/**
+ * Streaming (pull) parser for JSON documents. Each call to nextEvent() returns the next structural event in the
+ * document, so large documents can be scanned for the values required without building the full JsonValue tree.
+ * Use skipChildren() to skip over an object or array that is not required, and readValue() to materialise just the
+ * current value.
+ */
+class JsonReader(source: JsonSource) {
+  private enum class Scope {
+    EMPTY_DOCUMENT, NONEMPTY_DOCUMENT, EMPTY_OBJECT, DANGLING_NAME, NONEMPTY_OBJECT, EMPTY_ARRAY, NONEMPTY_ARRAY
+  }
+
+  private val lexer = JsonLexer(source)
+  private var stack = arrayOfNulls<Scope>(32)
+  private var stackSize = 1
+  private var names = arrayOfNulls<String>(32)
+  private var token: JsonToken? = null
+
+  /**
+   * The last event returned by nextEvent(), or null if nextEvent() has not been called yet
+   */
+  var currentEvent: JsonEvent? = null
+    private set
+
+  init {
+    stack[0] = Scope.EMPTY_DOCUMENT
+  }
+
+  /**
+   * The current nesting depth of objects and arrays. It is 0 at the top level of the document.
+   */
+  val depth: Int
+    get() = stackSize - 1
+
+  /**
+   * The name of the field the current event belongs to. For START_OBJECT, START_ARRAY, END_OBJECT and END_ARRAY this
+   * is the name of the field holding the object or array. It is null for values in arrays and at the top level.
+   */
+  val currentName: String?
+    get() = if ((currentEvent == JsonEvent.START_OBJECT || currentEvent == JsonEvent.START_ARRAY) && stackSize > 1) {
+      names[stackSize - 2]
+    } else {
+      names[stackSize - 1]
+    }
+
+  /**
+   * Returns the next event from the document. END_DOCUMENT is returned once the end of the document is reached.
+   */
+  @Throws(JsonException::class)
+  @Suppress("ComplexMethod")
+  fun nextEvent(): JsonEvent {
+    var next = nextToken()
+    val event = when (stack[stackSize - 1]) {
+      Scope.EMPTY_DOCUMENT -> {
+        if (next == null) {
+          throw JsonException(
+            "Invalid Json document (${lexer.documentPointer()}) - found only whitespace characters")
+        }
+        stack[stackSize - 1] = Scope.NONEMPTY_DOCUMENT
+        valueEvent(next)
+      }
+      Scope.NONEMPTY_DOCUMENT -> {
+        if (next != null) {
+          throw unexpected(next)
+        }
+        token = null
+        JsonEvent.END_DOCUMENT
+      }
+      Scope.EMPTY_OBJECT, Scope.NONEMPTY_OBJECT -> {
+        if (next == null) {
+          throw endOfDocument("object")
+        } else if (next !is JsonToken.ObjectEnd && stack[stackSize - 1] == Scope.NONEMPTY_OBJECT) {
+          if (next !is JsonToken.Comma) {
+            throw JsonException("Invalid Json document (${lexer.documentPointer()}) - Expecting ',' or '}' while " +
+              "parsing object, found '${String(next.chars)}'")
+          }
+          next = nextToken()
+        }
+        when (next) {
+          null -> throw endOfDocument("object")
+          is JsonToken.ObjectEnd -> {
+            stackSize--
+            JsonEvent.END_OBJECT
+          }
+          is JsonToken.StringValue -> {
+            stack[stackSize - 1] = Scope.DANGLING_NAME
+            token = next
+            names[stackSize - 1] = JsonKeyTable.intern(next.chars)
+            JsonEvent.FIELD_NAME
+          }
+          else -> throw JsonException("Invalid Json document (${lexer.documentPointer()}) - expected a string but " +
+            "found unexpected characters '${String(next.chars)}'")
+        }
+      }
+      Scope.DANGLING_NAME -> {
+        if (next == null) {
+          throw endOfDocument("object")
+        } else if (next !is JsonToken.Colon) {
+          throw JsonException("Invalid Json document (${lexer.documentPointer()}) - expected a colon but found " +
+            "unexpected characters '${String(next.chars)}'")
+        }
+        stack[stackSize - 1] = Scope.NONEMPTY_OBJECT
+        valueEvent(nextToken() ?: throw endOfDocument("object"))
+      }
+      Scope.EMPTY_ARRAY, Scope.NONEMPTY_ARRAY -> {
+        if (next == null) {
+          throw endOfDocument("array")
+        } else if (next !is JsonToken.ArrayEnd && stack[stackSize - 1] == Scope.NONEMPTY_ARRAY) {
+          if (next !is JsonToken.Comma) {
+            throw unexpected(next)
+          }
+          next = nextToken()
+        }
+        when (next) {
+          null -> throw endOfDocument("array")
+          is JsonToken.ArrayEnd -> {
+            stackSize--
+            JsonEvent.END_ARRAY
+          }
+          else -> {
+            stack[stackSize - 1] = Scope.NONEMPTY_ARRAY
+            valueEvent(next)
+          }
+        }
+      }
+      null -> throw IllegalStateException("JsonReader scope stack is corrupt")
+    }
+    currentEvent = event
+    return event
+  }
+
+  /**
+   * If the current event is START_OBJECT or START_ARRAY, skips over all the children up to and including the
+   * matching END_OBJECT or END_ARRAY event. Does nothing for any other event.
+   */
+  @Throws(JsonException::class)
+  fun skipChildren() {
+    if (currentEvent == JsonEvent.START_OBJECT || currentEvent == JsonEvent.START_ARRAY) {
+      val target = depth - 1
+      while (depth > target) {
+        nextEvent()
+      }
+    }
+  }
+
+  /**
+   * Returns the string value of the current FIELD_NAME or VALUE_STRING event
+   */
+  fun stringValue(): String {
+    val current = token
+    return if (current is JsonToken.StringValue) {
+      String(current.chars)
+    } else {
+      throw IllegalStateException("Expected a field name or string value but the current event is $currentEvent")
+    }
+  }
+
+  /**
+   * Materialises the current value as a JsonValue. If the current event is START_OBJECT or START_ARRAY, the whole
+   * object or array is read and the reader is left at the matching end event.
+   */
+  @Throws(JsonException::class)
+  fun readValue(): JsonValue {
+    return when (currentEvent) {
+      JsonEvent.START_OBJECT -> {
+        val map = CompactJsonMap()
+        while (nextEvent() != JsonEvent.END_OBJECT) {
+          val key = currentName!!
+          nextEvent()
+          map[key] = readValue()
+        }
+        JsonValue.Object(map)
+      }
+      JsonEvent.START_ARRAY -> {
+        val list = mutableListOf<JsonValue>()
+        while (nextEvent() != JsonEvent.END_ARRAY) {
+          list.add(readValue())
+        }
+        JsonValue.Array(list)
+      }
+      JsonEvent.VALUE_STRING -> JsonValue.StringValue(token as JsonToken.StringValue)
+      JsonEvent.VALUE_INTEGER -> JsonValue.Integer(token as JsonToken.Integer)
+      JsonEvent.VALUE_DECIMAL -> JsonValue.Decimal(token as JsonToken.Decimal)
+      JsonEvent.VALUE_TRUE -> JsonValue.True
+      JsonEvent.VALUE_FALSE -> JsonValue.False
+      JsonEvent.VALUE_NULL -> JsonValue.Null
+      else -> throw IllegalStateException("Expected a value but the current event is $currentEvent")
+    }
+  }
+
+  fun documentPointer() = lexer.documentPointer()
+
+  private fun valueEvent(next: JsonToken): JsonEvent {
+    token = next
+    return when (next) {
+      is JsonToken.Integer -> JsonEvent.VALUE_INTEGER
+      is JsonToken.Decimal -> JsonEvent.VALUE_DECIMAL
+      is JsonToken.StringValue -> JsonEvent.VALUE_STRING
+      is JsonToken.True -> JsonEvent.VALUE_TRUE
+      is JsonToken.False -> JsonEvent.VALUE_FALSE
+      is JsonToken.Null -> JsonEvent.VALUE_NULL
+      is JsonToken.ArrayStart -> {
+        push(Scope.EMPTY_ARRAY)
+        JsonEvent.START_ARRAY
+      }
+      is JsonToken.ObjectStart -> {
+        push(Scope.EMPTY_OBJECT)
+        JsonEvent.START_OBJECT
+      }
+      else -> throw unexpected(next)
+    }
+  }
+
+  private fun push(scope: Scope) {
+    if (stackSize == stack.size) {
+      stack = stack.copyOf(stackSize * 2)
+      names = names.copyOf(stackSize * 2)
+    }
+    names[stackSize] = null
+    stack[stackSize++] = scope
+  }
+
+  private fun nextToken(): JsonToken? {
+    var next: JsonToken?
+    do {
+      next = when (val result = lexer.nextToken()) {
+        is Err -> throw result.error
+        is Ok -> result.value
+      }
+    } while (next is JsonToken.Whitespace)
+    return next
+  }
+
+  private fun unexpected(next: JsonToken) = JsonException(
+    "Invalid Json document (${lexer.documentPointer()}) - found unexpected characters '${String(next.chars)}'")
+
+  private fun endOfDocument(type: String) = JsonException(
+    "Invalid Json document (${lexer.documentPointer()}) - found end of document while parsing $type")
+
+  companion object {
+    @JvmStatic
+    fun forString(json: String) = JsonReader(StringSource(json.toCharArray()))
+
+    @JvmStatic
+    fun forBytes(json: ByteArray) = JsonReader(ByteBufferSource(json))
+
+    @JvmStatic
+    fun forStream(json: InputStream) = JsonReader(InputStreamSource(json))
+
+    @JvmStatic
+    fun forReader(reader: Reader) = JsonReader(ReaderSource(reader))
+
+    @JvmStatic
+    fun forFile(file: File) = JsonReader(ByteBufferSource.fromFile(file.toPath()))
+  }
+}
@@ -1,16 +1,211 @@
 package au.com.dius.pact.core.support.json
 
 import au.com.dius.pact.core.support.Json
+import java.math.BigDecimal
+import java.math.BigInteger
+import kotlin.math.abs
+import kotlin.math.pow
 
 sealed class JsonValue {
+  /**
+   * Integer value. The characters are classified once when the value is created, so values that fit in a long can be
+   * compared without allocating. A BigInteger is only created when one is asked for, and is then cached.
+   */
   class Integer(val value: JsonToken.Integer) : JsonValue() {
     constructor(value: CharArray) : this(JsonToken.Integer(value))
-    fun toBigInteger() = String(this.value.chars).toBigInteger()
+
+    /**
+     * If the value fits in a long
+     */
+    val isLong: Boolean
+    private val longValue: Long
+    @Volatile
+    private var bigInteger: BigInteger? = null
+
+    init {
+      val chars = value.chars
+      val negative = chars.isNotEmpty() && chars[0] == '-'
+      val limit = if (negative) Long.MIN_VALUE else -Long.MAX_VALUE
+      var result = 0L
+      var fits = chars.size > (if (negative) 1 else 0)
+      var i = if (negative) 1 else 0
+      // Accumulates negatively so that Long.MIN_VALUE can be represented
+      while (fits && i < chars.size) {
+        val digit = chars[i++] - '0'
+        if (digit < 0 || digit > 9 || result < limit / 10) {
+          fits = false
+        } else {
+          result *= 10
+          if (result < limit + digit) {
+            fits = false
+          } else {
+            result -= digit
+          }
+        }
+      }
+      isLong = fits
+      longValue = if (!fits) 0 else if (negative) result else -result
+    }
+
+    fun toLong(): Long = if (isLong) longValue else toBigInteger().toLong()
+
+    fun toBigInteger(): BigInteger {
+      var result = bigInteger
+      if (result == null) {
+        result = if (isLong) BigInteger.valueOf(longValue) else String(this.value.chars).toBigInteger()
+        bigInteger = result
+      }
+      return result
+    }
+
+    internal fun sameValue(other: Integer) = when {
+      isLong && other.isLong -> longValue == other.longValue
+      isLong || other.isLong -> false
+      else -> toBigInteger() == other.toBigInteger()
+    }
+
+    internal fun valueHashCode() = if (isLong) longValue.hashCode() else toBigInteger().hashCode()
   }
 
+  /**
+   * Decimal value. The characters are classified once when the value is created: if the digits fit in a long, the
+   * value is kept as an unscaled long and a scale, so values can be compared without allocating. A BigDecimal is
+   * only created when one is asked for, and is then cached.
+   */
   class Decimal(val value: JsonToken.Decimal) : JsonValue() {
     constructor(value: CharArray) : this(JsonToken.Decimal(value))
-    fun toBigDecimal() = String(this.value.chars).toBigDecimal()
+
+    /**
+     * If the digits of the value fit in a long
+     */
+    val isCompact: Boolean
+    private val unscaled: Long
+    private val rawScale: Int
+    // Unscaled value and scale with the trailing zeros removed, so that 1.0 and 1.00 compare equal like they do
+    // with BigDecimal.compareTo
+    private val normalisedUnscaled: Long
+    private val normalisedScale: Int
+    @Volatile
+    private var bigDecimal: BigDecimal? = null
+
+    init {
+      val chars = value.chars
+      var i = if (chars.isNotEmpty() && (chars[0] == '-' || chars[0] == '+')) 1 else 0
+      val negative = i == 1 && chars[0] == '-'
+      var mantissa = 0L
+      var digits = 0
+      var fractionDigits = 0
+      var inFraction = false
+      var fits = true
+      while (fits && i < chars.size && chars[i] != 'e' && chars[i] != 'E') {
+        val ch = chars[i++]
+        if (ch == '.' && !inFraction) {
+          inFraction = true
+        } else if (ch in '0'..'9') {
+          if (mantissa > (Long.MAX_VALUE - (ch - '0')) / 10) {
+            fits = false
+          } else {
+            mantissa = mantissa * 10 + (ch - '0')
+            digits++
+            if (inFraction) {
+              fractionDigits++
+            }
+          }
+        } else {
+          fits = false
+        }
+      }
+
+      var exponent = 0
+      if (fits && i < chars.size) {
+        i++
+        val negativeExponent = i < chars.size && chars[i] == '-'
+        if (i < chars.size && (chars[i] == '-' || chars[i] == '+')) {
+          i++
+        }
+        fits = i < chars.size && chars.size - i <= MAX_EXPONENT_DIGITS
+        while (fits && i < chars.size) {
+          val digit = chars[i++] - '0'
+          if (digit < 0 || digit > 9) {
+            fits = false
+          } else {
+            exponent = exponent * 10 + digit
+          }
+        }
+        if (negativeExponent) {
+          exponent = -exponent
+        }
+      }
+
+      isCompact = fits && digits > 0
+      unscaled = if (isCompact && negative) -mantissa else if (isCompact) mantissa else 0
+      rawScale = if (isCompact) fractionDigits - exponent else 0
+
+      var normalised = unscaled
+      var normalisedScale = if (unscaled == 0L) 0 else rawScale
+      while (normalised != 0L && normalised % 10 == 0L) {
+        normalised /= 10
+        normalisedScale--
+      }
+      this.normalisedUnscaled = normalised
+      this.normalisedScale = normalisedScale
+    }
+
+    /**
+     * The scale of the value, which is the same as BigDecimal.scale() would return for it
+     */
+    fun scale(): Int = if (isCompact) rawScale else toBigDecimal().scale()
+
+    fun isZero(): Boolean = if (isCompact) unscaled == 0L else toBigDecimal().signum() == 0
+
+    fun toDouble(): Double {
+      return if (isCompact && unscaled != 0L && abs(unscaled) < MAX_EXACT_DOUBLE &&
+        rawScale in -MAX_EXACT_POWER..MAX_EXACT_POWER) {
+        // Both the unscaled value and the power of ten are exact doubles, so a single operation gives the correctly
+        // rounded result
+        if (rawScale >= 0) unscaled.toDouble() / POWERS_OF_TEN[rawScale]
+        else unscaled.toDouble() * POWERS_OF_TEN[-rawScale]
+      } else {
+        String(this.value.chars).toDouble()
+      }
+    }
+
+    fun toBigDecimal(): BigDecimal {
+      var result = bigDecimal
+      if (result == null) {
+        result = if (isCompact) BigDecimal.valueOf(unscaled, rawScale) else String(this.value.chars).toBigDecimal()
+        bigDecimal = result
+      }
+      return result
+    }
+
+    internal fun sameValue(other: Decimal): Boolean {
+      return if (isCompact && other.isCompact) {
+        normalisedUnscaled == other.normalisedUnscaled && normalisedScale == other.normalisedScale
+      } else {
+        toBigDecimal().compareTo(other.toBigDecimal()) == 0
+      }
+    }
+
+    internal fun valueHashCode(): Int {
+      return if (isCompact) {
+        31 * normalisedUnscaled.hashCode() + normalisedScale
+      } else {
+        val stripped = toBigDecimal().stripTrailingZeros()
+        if (stripped.unscaledValue().bitLength() < Long.SIZE_BITS) {
+          31 * stripped.unscaledValue().toLong().hashCode() + stripped.scale()
+        } else {
+          stripped.hashCode()
+        }
+      }
+    }
+
+    companion object {
+      private const val MAX_EXPONENT_DIGITS = 8
+      private const val MAX_EXACT_DOUBLE = 1L shl 53
+      private const val MAX_EXACT_POWER = 22
+      private val POWERS_OF_TEN = DoubleArray(MAX_EXACT_POWER + 1) { 10.0.pow(it) }
+    }
   }
 
   class StringValue(val value: JsonToken.StringValue) : JsonValue() {
@@ -109,16 +304,8 @@ sealed class JsonValue {
 
   override fun toString(): String {
     return when (this) {
-      is Null -> "null"
-      is Decimal -> String(this.value.chars)
-      is Integer -> String(this.value.chars)
       is StringValue -> this.value.toString()
-      is True -> "true"
-      is False -> "false"
-      is Array -> "[${this.values.joinToString(",") { it.serialise() }}]"
-      is Object -> "{${this.entries.entries.sortedBy { it.key }.joinToString(",") { 
-        "\"${it.key}\":" + it.value.serialise() 
-      }}}"
+      else -> serialise()
     }
   }
 
@@ -145,18 +332,7 @@ sealed class JsonValue {
     else -> false
   }
 
-  fun serialise(): String {
-    return when (this) {
-      is Null -> "null"
-      is Decimal -> String(this.value.chars)
-      is Integer -> String(this.value.chars)
-      is StringValue -> "\"${Json.escape(this.asString()!!)}\""
-      is True -> "true"
-      is False -> "false"
-      is Array -> "[${this.values.joinToString(",") { it.serialise() }}]"
-      is Object -> "{${this.entries.entries.sortedBy { it.key }.joinToString(",") { "\"${it.key}\":" + it.value.serialise() }}}"
-    }
-  }
+  fun serialise(): String = JsonWriter.toString(this)
 
   fun add(value: JsonValue) {
     if (this is Array) {
@@ -196,8 +372,8 @@ sealed class JsonValue {
     if (other !is JsonValue) return false
     return when (this) {
       is Null -> other is Null
-      is Decimal -> other is Decimal && this.toBigDecimal().compareTo(other.toBigDecimal()) == 0
-      is Integer -> other is Integer && this.toBigInteger() == other.toBigInteger()
+      is Decimal -> other is Decimal && this.sameValue(other)
+      is Integer -> other is Integer && this.sameValue(other)
       is StringValue -> other is StringValue && this.asString() == other.asString()
       is True -> other is True
       is False -> other is False
@@ -208,8 +384,8 @@ sealed class JsonValue {
 
   override fun hashCode() = when (this) {
     is Null -> 0.hashCode()
-    is Decimal -> this.toBigDecimal().hashCode()
-    is Integer -> this.toBigInteger().hashCode()
+    is Decimal -> this.valueHashCode()
+    is Integer -> this.valueHashCode()
     is StringValue -> this.asString()!!.hashCode()
     is True -> true.hashCode()
     is False -> false.hashCode()
@@ -218,27 +394,9 @@ sealed class JsonValue {
   }
 
   fun prettyPrint(indent: Int = 0, skipIndent: Boolean = false): String {
-    val indentStr = "".padStart(indent)
-    val indentStr2 = "".padStart(indent + 2)
-    return if (skipIndent) {
-      when (this) {
-        is Array -> "[\n" + this.values.joinToString(",\n") {
-          it.prettyPrint(indent + 2) } + "\n$indentStr]"
-        is Object -> "{\n" + this.entries.entries.sortedBy { it.key }.joinToString(",\n") {
-          "$indentStr2\"${it.key}\": ${it.value.prettyPrint(indent + 2, true)}"
-          } + "\n$indentStr}"
-        else -> this.serialise()
-      }
-    } else {
-      when (this) {
-        is Array -> "$indentStr$indentStr[\n" + this.values.joinToString(",\n") {
-          it.prettyPrint(indent + 2) } + "\n$indentStr]"
-        is Object -> "$indentStr{\n" + this.entries.entries.sortedBy { it.key }.joinToString(",\n") {
-          "$indentStr2\"${it.key}\": ${it.value.prettyPrint(indent + 2, true)}"
-          } + "\n$indentStr}"
-        else -> indentStr + this.serialise()
-      }
-    }
+    val builder = StringBuilder()
+    JsonWriter(builder, true).writePretty(this, indent, skipIndent)
+    return builder.toString()
   }
 
   val name: String
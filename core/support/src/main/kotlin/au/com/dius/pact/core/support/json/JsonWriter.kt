@@ -0,0 +1,314 @@
+package au.com.dius.pact.core.support.json
+
+import java.io.BufferedWriter
+import java.io.OutputStream
+import java.io.OutputStreamWriter
+import java.io.Writer
+import java.nio.ByteBuffer
+
+/**
+ * Writes JsonValues out as JSON text, streaming the output straight to the target instead of building up
+ * intermediate strings. Can write compact or pretty printed JSON, and object keys are sorted by default.
+ *
+ * The pretty printed format is the same as the one pact files have always been written with.
+ */
+class JsonWriter @JvmOverloads constructor(
+  private val target: Appendable,
+  private val pretty: Boolean = false,
+  private val sortKeys: Boolean = true
+) {
+
+  /**
+   * Number of UTF-8 encoded bytes that have been written so far
+   */
+  var bytesWritten: Long = 0
+    private set
+
+  /**
+   * Writes out the value
+   */
+  fun write(value: JsonValue): JsonWriter {
+    if (pretty) {
+      writePretty(value, 0, false)
+    } else {
+      writeCompact(value)
+    }
+    return this
+  }
+
+  /**
+   * Writes out the value pretty printed, starting at the given indent
+   */
+  fun writePretty(value: JsonValue, indent: Int, skipIndent: Boolean): JsonWriter {
+    when (value) {
+      is JsonValue.Array -> {
+        if (!skipIndent) {
+          indent(indent * 2)
+        }
+        ascii("[\n")
+        var first = true
+        for (item in value.values) {
+          if (!first) {
+            ascii(",\n")
+          }
+          first = false
+          writePretty(item, indent + 2, false)
+        }
+        ascii("\n")
+        indent(indent)
+        ascii("]")
+      }
+      is JsonValue.Object -> {
+        if (!skipIndent) {
+          indent(indent)
+        }
+        ascii("{\n")
+        var first = true
+        for ((key, item) in entries(value)) {
+          if (!first) {
+            ascii(",\n")
+          }
+          first = false
+          indent(indent + 2)
+          string(key)
+          ascii(": ")
+          writePretty(item, indent + 2, true)
+        }
+        ascii("\n")
+        indent(indent)
+        ascii("}")
+      }
+      else -> {
+        if (!skipIndent) {
+          indent(indent)
+        }
+        writeCompact(value)
+      }
+    }
+    return this
+  }
+
+  private fun writeCompact(value: JsonValue) {
+    when (value) {
+      is JsonValue.Null -> ascii("null")
+      is JsonValue.True -> ascii("true")
+      is JsonValue.False -> ascii("false")
+      is JsonValue.Integer -> chars(value.value.chars)
+      is JsonValue.Decimal -> chars(value.value.chars)
+      is JsonValue.StringValue -> string(value.value.chars)
+      is JsonValue.Array -> {
+        ascii("[")
+        var first = true
+        for (item in value.values) {
+          if (!first) {
+            ascii(",")
+          }
+          first = false
+          writeCompact(item)
+        }
+        ascii("]")
+      }
+      is JsonValue.Object -> {
+        ascii("{")
+        var first = true
+        for ((key, item) in entries(value)) {
+          if (!first) {
+            ascii(",")
+          }
+          first = false
+          string(key)
+          ascii(":")
+          writeCompact(item)
+        }
+        ascii("}")
+      }
+    }
+  }
+
+  private fun entries(value: JsonValue.Object): Collection<Map.Entry<String, JsonValue>> {
+    val entries = value.entries.entries
+    return if (sortKeys && entries.size > 1) entries.sortedBy { it.key } else entries
+  }
+
+  private fun indent(count: Int) {
+    for (i in 0 until count) {
+      target.append(' ')
+    }
+    bytesWritten += count
+  }
+
+  private fun ascii(s: String) {
+    target.append(s)
+    bytesWritten += s.length
+  }
+
+  private fun chars(chars: CharArray) {
+    for (c in chars) {
+      target.append(c)
+    }
+    bytesWritten += chars.size
+  }
+
+  private fun string(s: String) {
+    target.append('"')
+    for (c in s) {
+      escape(c)
+    }
+    target.append('"')
+    bytesWritten += 2
+  }
+
+  private fun string(chars: CharArray) {
+    target.append('"')
+    for (c in chars) {
+      escape(c)
+    }
+    target.append('"')
+    bytesWritten += 2
+  }
+
+  /**
+   * Escapes the same characters as Json.escape, so all non-ASCII and control characters are written as unicode
+   * escapes and the output is always plain ASCII
+   */
+  private fun escape(c: Char) {
+    when {
+      c == '"' -> ascii("\\\"")
+      c == '\\' -> ascii("\\\\")
+      c == '\b' -> ascii("\\b")
+      c == '\n' -> ascii("\\n")
+      c == '\t' -> ascii("\\t")
+      c == '\u000c' -> ascii("\\f")
+      c == '\r' -> ascii("\\r")
+      c < ' ' || c > '\u007f' -> {
+        val code = c.toInt()
+        target.append('\\').append('u')
+          .append(HEX_DIGITS[(code shr 12) and 0xF])
+          .append(HEX_DIGITS[(code shr 8) and 0xF])
+          .append(HEX_DIGITS[(code shr 4) and 0xF])
+          .append(HEX_DIGITS[code and 0xF])
+        bytesWritten += 6
+      }
+      else -> {
+        target.append(c)
+        bytesWritten++
+      }
+    }
+  }
+
+  /**
+   * Appendable that encodes characters as UTF-8 straight into a byte buffer, growing the buffer as required. The
+   * output of the writer is always ASCII apart from numbers with non-ASCII digits, so this is the fast path.
+   */
+  private class ByteBufferAppendable(initialSize: Int) : Appendable {
+    var buffer: ByteBuffer = ByteBuffer.allocate(initialSize)
+    private var highSurrogate: Char? = null
+
+    override fun append(csq: CharSequence?): Appendable {
+      val s = csq ?: "null"
+      for (i in s.indices) {
+        append(s[i])
+      }
+      return this
+    }
+
+    override fun append(csq: CharSequence?, start: Int, end: Int): Appendable {
+      return append((csq ?: "null").subSequence(start, end))
+    }
+
+    override fun append(c: Char): Appendable {
+      val code = c.toInt()
+      when {
+        code < 0x80 -> put(code)
+        code < 0x800 -> {
+          put(0xC0 or (code shr 6))
+          put(0x80 or (code and 0x3F))
+        }
+        Character.isHighSurrogate(c) -> highSurrogate = c
+        Character.isLowSurrogate(c) && highSurrogate != null -> {
+          val codePoint = Character.toCodePoint(highSurrogate!!, c)
+          highSurrogate = null
+          put(0xF0 or (codePoint shr 18))
+          put(0x80 or ((codePoint shr 12) and 0x3F))
+          put(0x80 or ((codePoint shr 6) and 0x3F))
+          put(0x80 or (codePoint and 0x3F))
+        }
+        else -> {
+          put(0xE0 or (code shr 12))
+          put(0x80 or ((code shr 6) and 0x3F))
+          put(0x80 or (code and 0x3F))
+        }
+      }
+      return this
+    }
+
+    private fun put(b: Int) {
+      if (!buffer.hasRemaining()) {
+        val newBuffer = ByteBuffer.allocate(buffer.capacity() * 2)
+        buffer.flip()
+        newBuffer.put(buffer)
+        buffer = newBuffer
+      }
+      buffer.put(b.toByte())
+    }
+  }
+
+  companion object {
+    private val HEX_DIGITS = "0123456789ABCDEF".toCharArray()
+
+    /**
+     * Returns the value as a JSON string
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun toString(value: JsonValue, pretty: Boolean = false, sortKeys: Boolean = true): String {
+      val builder = StringBuilder()
+      JsonWriter(builder, pretty, sortKeys).write(value)
+      return builder.toString()
+    }
+
+    /**
+     * Writes the value to the writer. The writer is not flushed or closed.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun write(value: JsonValue, writer: Writer, pretty: Boolean = false, sortKeys: Boolean = true): Long {
+      return JsonWriter(writer, pretty, sortKeys).write(value).bytesWritten
+    }
+
+    /**
+     * Writes the value to the output stream as UTF-8. The stream is flushed but not closed.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun write(value: JsonValue, stream: OutputStream, pretty: Boolean = false, sortKeys: Boolean = true): Long {
+      val writer = BufferedWriter(OutputStreamWriter(stream, Charsets.UTF_8))
+      val count = write(value, writer, pretty, sortKeys)
+      writer.flush()
+      return count
+    }
+
+    /**
+     * Writes the value to a new byte buffer, which is returned ready to be read
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun toByteBuffer(value: JsonValue, pretty: Boolean = false, sortKeys: Boolean = true): ByteBuffer {
+      val appendable = ByteBufferAppendable(256)
+      JsonWriter(appendable, pretty, sortKeys).write(value)
+      return appendable.buffer.flip()
+    }
+
+    /**
+     * Writes the value to a new byte array
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun toBytes(value: JsonValue, pretty: Boolean = false, sortKeys: Boolean = true): ByteArray {
+      val buffer = toByteBuffer(value, pretty, sortKeys)
+      val bytes = ByteArray(buffer.remaining())
+      buffer.get(bytes)
+      return bytes
+    }
+  }
+}
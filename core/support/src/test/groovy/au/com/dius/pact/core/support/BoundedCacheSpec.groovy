@@ -0,0 +1,63 @@
+package au.com.dius.pact.core.support
+
+import spock.lang.Specification
+
+class BoundedCacheSpec extends Specification {
+
+  def 'computes values once and returns the cached value after that'() {
+    given:
+    def cache = new BoundedCache<String, String>(10)
+    def calls = 0
+
+    when:
+    def value1 = cache.getOrPut('a') { calls++; it.toUpperCase() }
+    def value2 = cache.getOrPut('a') { calls++; it.toUpperCase() }
+
+    then:
+    value1 == 'A'
+    value2.is(value1)
+    calls == 1
+  }
+
+  def 'evicts entries that have not been used since the last sweep once full'() {
+    given:
+    def cache = new BoundedCache<String, String>(2)
+    cache.getOrPut('a') { 'A' }
+    cache.getOrPut('b') { 'B' }
+
+    when:
+    cache.getOrPut('a') { 'not used' }
+    cache.getOrPut('c') { 'C' }
+    def a = cache.getOrPut('a') { 'new A' }
+    def b = cache.getOrPut('b') { 'new B' }
+
+    then:
+    cache.size == 2
+    a == 'A'
+    b == 'new B'
+  }
+
+  def 'stays within its bounds when used from many threads'() {
+    given:
+    def cache = new BoundedCache<Integer, Integer>(16)
+    def threads = (1..8).collect { n ->
+      Thread.start {
+        1000.times { cache.getOrPut((it * n) % 100) { it * 2 } }
+      }
+    }
+
+    when:
+    threads*.join()
+
+    then:
+    cache.size <= 16
+    cache.getOrPut(42) { 84 } == 84
+  }
+
+  def 'compiled patterns are shared'() {
+    expect:
+    PatternCache.regex('\\d+').is(PatternCache.regex('\\d+'))
+    PatternCache.matches('\\d+', '1234')
+    !PatternCache.matches('\\d+', '12a34')
+  }
+}
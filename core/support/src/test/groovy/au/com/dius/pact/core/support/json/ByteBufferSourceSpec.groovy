@@ -0,0 +1,92 @@
+package au.com.dius.pact.core.support.json
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+
+class ByteBufferSourceSpec extends Specification {
+
+  @Unroll
+  def 'decodes UTF-8 - #description'() {
+    given:
+    def source = new ByteBufferSource(value.getBytes(StandardCharsets.UTF_8))
+    def chars = []
+
+    when:
+    def next = source.nextChar()
+    while (next != JsonSource.EOF) {
+      chars << (char) next
+      next = source.nextChar()
+    }
+
+    then:
+    chars.join('') == value
+
+    where:
+
+    description            | value
+    'empty'                | ''
+    'ascii'                | '{"a": 1}'
+    'two byte sequence'    | 'café'
+    'three byte sequence'  | '€100'
+    'four byte sequence'   | 'smile 😀!'
+  }
+
+  def 'peek does not consume the character'() {
+    given:
+    def source = new ByteBufferSource('😀a'.getBytes(StandardCharsets.UTF_8))
+
+    expect:
+    source.peekNextChar() == 0xd83d
+    source.peekNextChar() == 0xd83d
+    source.nextChar() == 0xd83d
+    source.peekNextChar() == 0xde00
+    source.nextChar() == 0xde00
+    source.peekNextChar() == (int) 'a'
+    source.nextChar() == (int) 'a'
+    source.peekNextChar() == JsonSource.EOF
+    source.nextChar() == JsonSource.EOF
+  }
+
+  def 'malformed sequences are replaced'() {
+    given:
+    def source = new ByteBufferSource([0x61, 0xC3, 0x62] as byte[])
+
+    expect:
+    source.nextChar() == (int) 'a'
+    source.nextChar() == 0xFFFD
+    source.nextChar() == (int) 'b'
+    source.nextChar() == JsonSource.EOF
+  }
+
+  def 'tracks the document position'() {
+    given:
+    def source = new ByteBufferSource('ab\ncd'.getBytes(StandardCharsets.UTF_8))
+
+    when:
+    source.advance(4)
+
+    then:
+    source.documentPointer() == '2:2'
+  }
+
+  def 'large files are read into memory so they can be overwritten after parsing'() {
+    given:
+    def file = File.createTempFile('large-pact', '.json')
+    file.deleteOnExit()
+    def contents = '"' + ('a' * (2 * 1024 * 1024)) + '"'
+    file.text = contents
+
+    when:
+    def source = ByteBufferSource.fromFile(file.toPath())
+    file.text = contents.replace('a', 'b')
+    def c = source.nextChar()
+    def c2 = source.nextChar()
+
+    then:
+    c == '"' as char
+    c2 == 'a' as char
+    file.delete()
+  }
+}
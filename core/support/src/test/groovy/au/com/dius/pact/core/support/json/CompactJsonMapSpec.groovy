@@ -0,0 +1,84 @@
+package au.com.dius.pact.core.support.json
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CompactJsonMapSpec extends Specification {
+
+  private static JsonValue num(int i) {
+    new JsonValue.Integer(i.toString().chars)
+  }
+
+  @Unroll
+  def 'behaves like a linked hash map with #count entries'() {
+    given:
+    def map = new CompactJsonMap()
+    def expected = new LinkedHashMap<String, JsonValue>()
+
+    when:
+    (count..1).each {
+      map.put("key$it".toString(), num(it))
+      expected.put("key$it".toString(), num(it))
+    }
+    map.put('key1', num(100))
+    expected.put('key1', num(100))
+
+    then:
+    map == expected
+    map.hashCode() == expected.hashCode()
+    map.size() == count
+    map.keySet().toList() == expected.keySet().toList()
+    map.values().toList() == expected.values().toList()
+    map.get('key1') == num(100)
+    map.containsKey("key$count".toString())
+    !map.containsKey('other')
+    map.get('other') == null
+
+    where:
+    count << [1, 8, 9, 20]
+  }
+
+  def 'removing entries keeps the insertion order'() {
+    given:
+    def map = new CompactJsonMap()
+    (1..5).each { map.put("key$it".toString(), num(it)) }
+
+    when:
+    def removed = map.remove('key2')
+    def iterator = map.entrySet().iterator()
+    iterator.next()
+    iterator.next()
+    iterator.remove()
+
+    then:
+    removed == num(2)
+    map.keySet().toList() == ['key1', 'key4', 'key5']
+  }
+
+  def 'entries can be updated through the entry set'() {
+    given:
+    def map = new CompactJsonMap()
+    map.put('a', num(1))
+    map.put('b', num(2))
+
+    when:
+    map.entrySet().each { it.value = num((int) (it.value.toLong() * 10)) }
+
+    then:
+    map == [a: num(10), b: num(20)]
+  }
+
+  def 'parsed object keys are shared across documents'() {
+    given:
+    def json1 = JsonParser.INSTANCE.parseString('{"matchingRules": {"body": {}}}')
+    def json2 = JsonParser.INSTANCE.parseString('[{"matchingRules": {"body": {}}}]')
+
+    when:
+    def key1 = json1.entries.keySet().first()
+    def key2 = json2.values[0].entries.keySet().first()
+
+    then:
+    key1 == 'matchingRules'
+    key1.is(key2)
+  }
+}
@@ -117,6 +117,30 @@ class JsonParserSpec extends Specification {
     ])
   }
 
+  def 'can parse a document from UTF-8 bytes'() {
+    given:
+    def json = '{"name": "caf\u00e9 \ud83d\ude00", "escaped": "\\u00e9", "values": [1, 2.5, true, null]}'
+
+    when:
+    def value = JsonParser.INSTANCE.parseBytes(json.getBytes('UTF-8'))
+
+    then:
+    value == JsonParser.INSTANCE.parseString(json)
+    value.get('name').asString() == 'caf\u00e9 \ud83d\ude00'
+    value.get('escaped').asString() == '\u00e9'
+  }
+
+  def 'can parse a pact file directly from the file'() {
+    given:
+    def pactfile = new File(JsonParserSpec.getResource('/v3-pact-broker.json').toURI())
+
+    when:
+    def value = JsonParser.INSTANCE.parseFile(pactfile)
+
+    then:
+    value == JsonParser.INSTANCE.parseString(pactfile.getText('UTF-8'))
+  }
+
   def 'can parse a pact file'() {
     given:
     def pactfile = JsonParserSpec.getResourceAsStream('/v3-pact-broker.json')
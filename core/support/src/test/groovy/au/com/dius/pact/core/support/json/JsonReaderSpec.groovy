@@ -0,0 +1,142 @@
+package au.com.dius.pact.core.support.json
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static au.com.dius.pact.core.support.json.JsonEvent.END_ARRAY
+import static au.com.dius.pact.core.support.json.JsonEvent.END_DOCUMENT
+import static au.com.dius.pact.core.support.json.JsonEvent.END_OBJECT
+import static au.com.dius.pact.core.support.json.JsonEvent.FIELD_NAME
+import static au.com.dius.pact.core.support.json.JsonEvent.START_ARRAY
+import static au.com.dius.pact.core.support.json.JsonEvent.START_OBJECT
+import static au.com.dius.pact.core.support.json.JsonEvent.VALUE_DECIMAL
+import static au.com.dius.pact.core.support.json.JsonEvent.VALUE_FALSE
+import static au.com.dius.pact.core.support.json.JsonEvent.VALUE_INTEGER
+import static au.com.dius.pact.core.support.json.JsonEvent.VALUE_NULL
+import static au.com.dius.pact.core.support.json.JsonEvent.VALUE_STRING
+import static au.com.dius.pact.core.support.json.JsonEvent.VALUE_TRUE
+
+@SuppressWarnings('LineLength')
+class JsonReaderSpec extends Specification {
+
+  @Unroll
+  def 'events - #description'() {
+    given:
+    def reader = JsonReader.forString(json)
+    def result = []
+
+    when:
+    def event = reader.nextEvent()
+    while (event != END_DOCUMENT) {
+      result << event
+      event = reader.nextEvent()
+    }
+
+    then:
+    result == events
+
+    where:
+
+    description    | json                                 | events
+    'integer'      | ' 1234 '                             | [VALUE_INTEGER]
+    'decimal'      | '12.5e3'                             | [VALUE_DECIMAL]
+    'string'       | '"a"'                                | [VALUE_STRING]
+    'literals'     | '[true, false, null]'                | [START_ARRAY, VALUE_TRUE, VALUE_FALSE, VALUE_NULL, END_ARRAY]
+    'empty object' | '{}'                                 | [START_OBJECT, END_OBJECT]
+    'empty array'  | '[]'                                 | [START_ARRAY, END_ARRAY]
+    'object'       | '{"a": 1, "b": [2, {"c": "d"}]}'     | [START_OBJECT, FIELD_NAME, VALUE_INTEGER, FIELD_NAME, START_ARRAY, VALUE_INTEGER, START_OBJECT, FIELD_NAME, VALUE_STRING, END_OBJECT, END_ARRAY, END_OBJECT]
+  }
+
+  @Unroll
+  def 'invalid document - #description'() {
+    given:
+    def reader = JsonReader.forString(json)
+
+    when:
+    def event = reader.nextEvent()
+    while (event != END_DOCUMENT) {
+      event = reader.nextEvent()
+    }
+
+    then:
+    thrown(JsonException)
+
+    where:
+
+    description               | json
+    'whitespace'              | '  \t\n\r'
+    'invalid value after'     | 'null true'
+    'unterminated array'      | '["null", true'
+    'unterminated object'     | '{"null": true'
+    'invalid object key'      | '{null: true}'
+    'missing colon'           | '{"null" true}'
+    'missing comma in array'  | '["null" true]'
+    'missing comma in object' | '{"null": true "other": false}'
+  }
+
+  def 'field names and values'() {
+    given:
+    def reader = JsonReader.forString('{"consumer": {"name": "Foo"}, "interactions": [{"description": "a"}]}')
+
+    expect:
+    reader.nextEvent() == START_OBJECT
+    reader.currentName == null
+    reader.nextEvent() == FIELD_NAME
+    reader.currentName == 'consumer'
+    reader.stringValue() == 'consumer'
+    reader.nextEvent() == START_OBJECT
+    reader.currentName == 'consumer'
+    reader.depth == 2
+    reader.nextEvent() == FIELD_NAME
+    reader.nextEvent() == VALUE_STRING
+    reader.currentName == 'name'
+    reader.stringValue() == 'Foo'
+    reader.nextEvent() == END_OBJECT
+    reader.currentName == 'consumer'
+    reader.nextEvent() == FIELD_NAME
+    reader.currentName == 'interactions'
+    reader.nextEvent() == START_ARRAY
+    reader.nextEvent() == START_OBJECT
+    reader.currentName == null
+  }
+
+  def 'skip children skips the current object or array'() {
+    given:
+    def reader = JsonReader.forString('{"interactions": [{"a": [1, 2, {"b": {}}]}, 2], "_links": {"self": "x"}}')
+
+    when:
+    reader.nextEvent()
+    reader.nextEvent()
+    reader.nextEvent()
+    reader.skipChildren()
+
+    then:
+    reader.currentEvent == END_ARRAY
+    reader.depth == 1
+    reader.nextEvent() == FIELD_NAME
+    reader.stringValue() == '_links'
+  }
+
+  def 'read value materialises the current value'() {
+    given:
+    def json = '{"interactions": [1, 2, 3], "_links": {"self": {"href": "http://localhost"}}, "other": true}'
+    def reader = JsonReader.forBytes(json.bytes)
+    JsonValue links = null
+
+    when:
+    def event = reader.nextEvent()
+    while (event != END_DOCUMENT) {
+      if (event == FIELD_NAME && reader.stringValue() == '_links' && reader.depth == 1) {
+        reader.nextEvent()
+        links = reader.readValue()
+      } else if (event == START_ARRAY) {
+        reader.skipChildren()
+      }
+      event = reader.nextEvent()
+    }
+
+    then:
+    links == JsonParser.INSTANCE.parseString('{"self": {"href": "http://localhost"}}')
+    reader.nextEvent() == END_DOCUMENT
+  }
+}
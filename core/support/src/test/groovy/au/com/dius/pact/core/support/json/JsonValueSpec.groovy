@@ -0,0 +1,104 @@
+package au.com.dius.pact.core.support.json
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class JsonValueSpec extends Specification {
+
+  @Unroll
+  def 'integer values - #value'() {
+    given:
+    def json = new JsonValue.Integer(value.chars)
+
+    expect:
+    json.isLong() == isLong
+    json.toBigInteger() == new BigInteger(value)
+    json.toLong() == new BigInteger(value).toLong()
+
+    where:
+
+    value                            | isLong
+    '0'                              | true
+    '-1'                             | true
+    '1234567890'                     | true
+    '9223372036854775807'            | true
+    '-9223372036854775808'           | true
+    '9223372036854775808'            | false
+    '-9223372036854775809'           | false
+    '123456789012345678901234567890' | false
+  }
+
+  @Unroll
+  def 'integer equality - #a == #b'() {
+    given:
+    def valueA = new JsonValue.Integer(a.chars)
+    def valueB = new JsonValue.Integer(b.chars)
+
+    expect:
+    (valueA == valueB) == result
+    !result || valueA.hashCode() == valueB.hashCode()
+
+    where:
+
+    a                                | b                                | result
+    '100'                            | '100'                            | true
+    '100'                            | '-100'                           | false
+    '0'                              | '-0'                             | true
+    '9223372036854775808'            | '9223372036854775808'            | true
+    '9223372036854775808'            | '9223372036854775807'            | false
+    '123456789012345678901234567890' | '123456789012345678901234567891' | false
+  }
+
+  @Unroll
+  def 'decimal values - #value'() {
+    given:
+    def json = new JsonValue.Decimal(value.chars)
+
+    expect:
+    json.isCompact() == compact
+    json.toBigDecimal() == new BigDecimal(value)
+    json.scale() == new BigDecimal(value).scale()
+    json.toDouble() == Double.parseDouble(value)
+    json.isZero() == (new BigDecimal(value).signum() == 0)
+
+    where:
+
+    value                        | compact
+    '0.0'                        | true
+    '-0.0'                       | true
+    '1.5'                        | true
+    '-12.375'                    | true
+    '0.1'                        | true
+    '1.5e3'                      | true
+    '1.5E-3'                     | true
+    '2.5e+10'                    | true
+    '100'                        | true
+    '1.7976931348623157e308'     | true
+    '12345678901234567890.12345' | false
+    '1e123456789'                | false
+  }
+
+  @Unroll
+  def 'decimal equality - #a == #b'() {
+    given:
+    def valueA = new JsonValue.Decimal(a.chars)
+    def valueB = new JsonValue.Decimal(b.chars)
+
+    expect:
+    (valueA == valueB) == result
+    !result || valueA.hashCode() == valueB.hashCode()
+
+    where:
+
+    a                             | b                            | result
+    '1.5'                         | '1.5'                        | true
+    '2.3'                         | '2.300'                      | true
+    '150.0'                       | '1.5e2'                      | true
+    '0.0'                         | '0.000'                      | true
+    '0.0'                         | '-0.0'                       | true
+    '1.5'                         | '-1.5'                       | false
+    '1.5'                         | '1.05'                       | false
+    '12345678901234567890.0'      | '1.234567890123456789e19'    | true
+    '123456789012345678901234.50' | '123456789012345678901234.5' | true
+  }
+}
@@ -0,0 +1,116 @@
+package au.com.dius.pact.core.support.json
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+
+@SuppressWarnings('LineLength')
+class JsonWriterSpec extends Specification {
+
+  @Unroll
+  def 'writes compact json - #description'() {
+    expect:
+    JsonWriter.toString(JsonParser.INSTANCE.parseString(json)) == result
+
+    where:
+
+    description      | json                                  | result
+    'integer'        | '1234'                                | '1234'
+    'decimal'        | '-12.5e10'                            | '-12.5e10'
+    'string'         | '"a string"'                          | '"a string"'
+    'true'           | 'true'                                | 'true'
+    'false'          | 'false'                               | 'false'
+    'null'           | 'null'                                | 'null'
+    'empty array'    | '[]'                                  | '[]'
+    'empty object'   | '{}'                                  | '{}'
+    'array'          | '[1, "2", [true, null]]'              | '[1,"2",[true,null]]'
+    'object'         | '{"b": 1, "a": {"d": [], "c": null}}' | '{"a":{"c":null,"d":[]},"b":1}'
+  }
+
+  def 'can write the object keys in insertion order'() {
+    given:
+    def json = JsonParser.INSTANCE.parseString('{"b": 1, "a": 2, "c": 3}')
+
+    expect:
+    JsonWriter.toString(json, false, false) == '{"b":1,"a":2,"c":3}'
+  }
+
+  @Unroll
+  def 'escapes strings and object keys - #description'() {
+    expect:
+    JsonWriter.toString(new JsonValue.Object([(key): new JsonValue.StringValue(value.chars)])) == result
+
+    where:
+
+    description       | key     | value        | result
+    'quotes'          | 'a"b'   | 'say "hi"'   | '{"a\\"b":"say \\"hi\\""}'
+    'backslash'       | 'a\\b'  | 'c:\\temp'   | '{"a\\\\b":"c:\\\\temp"}'
+    'control chars'   | 'k'     | '\n\t\r\b\f' | '{"k":"\\n\\t\\r\\b\\f"}'
+    'other control'   | 'k'     | '\u0001'     | '{"k":"\\u0001"}'
+    'non-ascii chars' | 'ключ'  | 'è€'         | '{"\\u043A\\u043B\\u044E\\u0447":"\\u00E8\\u20AC"}'
+  }
+
+  def 'pretty prints in the same format as the pact files'() {
+    given:
+    def json = JsonParser.INSTANCE.parseString('{"b": [1, {"c": "d"}, []], "a": {}, "e": null}')
+
+    expect:
+    JsonWriter.toString(json, true) == '''{
+    |  "a": {
+    |
+    |  },
+    |  "b": [
+    |    1,
+    |    {
+    |      "c": "d"
+    |    },
+    |        [
+    |
+    |    ]
+    |  ],
+    |  "e": null
+    |}'''.stripMargin()
+    json.prettyPrint() == JsonWriter.toString(json, true)
+  }
+
+  def 'writes to a writer and returns the number of bytes written'() {
+    given:
+    def json = JsonParser.INSTANCE.parseString('{"b": [1, 2.5], "a": "\u20AC"}')
+    def writer = new StringWriter()
+
+    when:
+    def count = JsonWriter.write(json, writer)
+
+    then:
+    writer.toString() == '{"a":"\\u20AC","b":[1,2.5]}'
+    count == writer.toString().length()
+  }
+
+  def 'writes to an output stream as UTF-8'() {
+    given:
+    def json = JsonParser.INSTANCE.parseString('[1, "two", {"three": 3}]')
+    def stream = new ByteArrayOutputStream()
+
+    when:
+    def count = JsonWriter.write(json, stream, true)
+
+    then:
+    new String(stream.toByteArray(), StandardCharsets.UTF_8) == json.prettyPrint()
+    count == stream.size()
+  }
+
+  def 'writes to a byte buffer'() {
+    given:
+    def json = JsonParser.INSTANCE.parseString('{"key": "' + ('x' * 1000) + '"}')
+
+    when:
+    def buffer = JsonWriter.toByteBuffer(json)
+    def bytes = JsonWriter.toBytes(json)
+
+    then:
+    buffer.position() == 0
+    buffer.remaining() == 1010
+    new String(bytes, StandardCharsets.UTF_8) == json.serialise()
+  }
+}
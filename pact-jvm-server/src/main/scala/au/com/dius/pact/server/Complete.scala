@@ -36,6 +36,7 @@ object Complete {
       pact <- mockProvider.pact
     } yield {
       mockProvider.stop()
+      PortAllocator.release(mockProvider.config.getPort)
 
       writeIfMatching(pact, sessionResults, mockProvider.config.getPactVersion) match {
         case PactVerified => pactWritten(new Response(200, ResponseUtils.CrossSiteHeaders.asJava),
@@ -1,32 +1,26 @@
 package au.com.dius.pact.server
 
-import java.io.IOException
-import java.net.ServerSocket
-
 import au.com.dius.pact.consumer.model.{MockHttpsKeystoreProviderConfig, MockProviderConfig}
 import au.com.dius.pact.core.model._
+import au.com.dius.pact.core.support.json.{JsonParser, JsonValue}
 import com.typesafe.scalalogging.StrictLogging
-import org.apache.commons.lang3.RandomUtils
 
 import scala.collection.JavaConverters._
+import scala.util.Try
 
 object Create extends StrictLogging {
 
   def create(state: String, path: List[String], requestBody: String, oldState: ServerState, config: Config): Result = {
-    val pact = DefaultPactReader.INSTANCE.loadPact(requestBody).asInstanceOf[RequestResponsePact]
+    val (server, newState) = register(path, requestBody, oldState, config)
+    val body = OptionalBody.body(("{\"port\": " + server.config.getPort + "}").getBytes)
 
-    val mockConfig : MockProviderConfig = {
-      if(!config.keystorePath.isEmpty) {
-        MockHttpsKeystoreProviderConfig
-          .httpsKeystoreConfig(config.host, config.sslPort, config.keystorePath, config.keystorePassword,
-            PactSpecVersion.fromInt(config.pactVersion))
-      }
-      else {
-        new MockProviderConfig(config.host, randomPort(config.portLowerBound, config.portUpperBound),
-          PactSpecVersion.fromInt(config.pactVersion))
-      }
-    }
-    val server = DefaultMockProvider.apply(mockConfig)
+    Result(new Response(201, (ResponseUtils.CrossSiteHeaders ++ Map("Content-Type" -> List("application/json").asJava)).asJava, body), newState)
+  }
+
+  private def register(path: List[String], requestBody: String, oldState: ServerState,
+                       config: Config): (StatefulMockProvider, ServerState) = {
+    val pact = DefaultPactReader.INSTANCE.loadPact(requestBody).asInstanceOf[RequestResponsePact]
+    val server = startMockProvider(pact, config)
 
     val port = server.config.getPort
     val portEntry = port.toString -> server
@@ -37,11 +31,104 @@ object Create extends StrictLogging {
         pathValue <- path
       ) yield (pathValue -> server))
 
-    val body = OptionalBody.body(("{\"port\": " + port + "}").getBytes)
+    (server, newState)
+  }
 
-    server.start(pact)
+  /**
+   * Starts a mock provider for the pact. Without a keystore, the port is taken from the port allocator for the
+   * configured range, and the mock provider is bound to it as part of the allocation.
+   */
+  def startMockProvider(pact: RequestResponsePact, config: Config): StatefulMockProvider = {
+    val pactVersion = PactSpecVersion.fromInt(config.pactVersion)
+    if (!config.keystorePath.isEmpty) {
+      val server = DefaultMockProvider.apply(MockHttpsKeystoreProviderConfig
+        .httpsKeystoreConfig(config.host, config.sslPort, config.keystorePath, config.keystorePassword, pactVersion))
+      server.start(pact)
+      server
+    } else {
+      val allocator = PortAllocator.forRange(config.portLowerBound, config.portUpperBound)
+      allocator.allocate { port =>
+        val server = DefaultMockProvider.apply(new MockProviderConfig(config.host, port, pactVersion))
+        try {
+          server.start(pact)
+        } catch {
+          case e: Exception =>
+            Try(server.stop())
+            throw e
+        }
+        server
+      } match {
+        case Some((_, server)) => server
+        case None => throw new IllegalStateException(
+          s"There are no free ports between ${config.portLowerBound} and ${config.portUpperBound}")
+      }
+    }
+  }
 
-    Result(new Response(201, (ResponseUtils.CrossSiteHeaders ++ Map("Content-Type" -> List("application/json").asJava)).asJava, body), newState)
+  private case class CreateEntry(paths: List[String], pact: String)
+
+  /**
+   * Creates a mock provider for each entry in the request body, which is a JSON array of objects with the pact and
+   * the optional array of paths. The entries are all checked before any mock provider is started, and the mock
+   * providers are either all created, or none are.
+   */
+  def createAll(request: Request, oldState: ServerState, config: Config): Result = {
+    parseEntries(request) match {
+      case Right(entries) =>
+        var state = oldState
+        var created = List[StatefulMockProvider]()
+        try {
+          val ports = entries.map { entry =>
+            val (server, newState) = register(entry.paths, entry.pact, state, config)
+            state = newState
+            created = server :: created
+            server.config.getPort
+          }
+          val body = OptionalBody.body(("{\"ports\": [" + ports.mkString(", ") + "]}").getBytes)
+          Result(new Response(201, (ResponseUtils.CrossSiteHeaders ++
+            Map("Content-Type" -> List("application/json").asJava)).asJava, body), state)
+        } catch {
+          case e: Exception =>
+            created.foreach { server =>
+              Try(server.stop())
+              PortAllocator.release(server.config.getPort)
+            }
+            throw e
+        }
+      case Left(error) =>
+        Result(new Response(400, ResponseUtils.CrossSiteHeaders.asJava,
+          OptionalBody.body(("{\"error\": \"" + error + "\"}").getBytes)), oldState)
+    }
+  }
+
+  private def parseEntries(request: Request): Either[String, List[CreateEntry]] = {
+    val json = Option(request.getBody).filter(_.isPresent)
+      .flatMap(body => Try(JsonParser.parseString(body.valueAsString())).toOption)
+    json.flatMap(value => Option(value.asArray())) match {
+      case Some(array) =>
+        array.getValues.asScala.toList.zipWithIndex.foldLeft[Either[String, List[CreateEntry]]](Right(Nil)) {
+          case (Right(entries), (entry, index)) => parseEntry(entry, index).map(entries :+ _)
+          case (error, _) => error
+        }
+      case None => Left("please provide a JSON array of pacts")
+    }
+  }
+
+  private def parseEntry(entry: JsonValue, index: Int): Either[String, CreateEntry] = {
+    if (!entry.isObject || !entry.get("pact").isObject) {
+      Left(s"entry $index must be an object with a pact")
+    } else {
+      val pact = entry.get("pact").serialise()
+      val path = entry.get("path")
+      if (path.isNull) {
+        Right(CreateEntry(Nil, pact))
+      } else {
+        Option(path.asArray()).map(_.getValues.asScala.toList).filter(_.forall(_.isString)) match {
+          case Some(paths) => Right(CreateEntry(paths.map(_.asString()), pact))
+          case None => Left(s"the path of entry $index must be an array of strings")
+        }
+      }
+    }
   }
 
   def apply(request: Request, oldState: ServerState, config: Config): Result = {
@@ -65,39 +152,4 @@ object Create extends StrictLogging {
     result getOrElse clientError
   }
 
-  def randomPort(lower: Int, upper: Int): Int = {
-    var port: Integer = null
-    var count = 0
-    while (port == null && count < 20) {
-      val randomPort = RandomUtils.nextInt(lower, upper)
-      if (portAvailable(randomPort)) {
-        port = randomPort
-      }
-      count += 1
-    }
-
-    if (port == null) {
-      port = 0
-    }
-
-    port
-  }
-
-  private def portAvailable(p: Int): Boolean = {
-    var socket: ServerSocket = null
-    try {
-      socket = new ServerSocket(p)
-      true
-    } catch {
-      case _: IOException => false
-    } finally {
-      if (socket != null) {
-        try {
-          socket.close()
-        } catch {
-          case _: IOException => {}
-        }
-      }
-    }
-  }
 }
@@ -0,0 +1,119 @@
+package au.com.dius.pact.server
+
+import java.util.concurrent.atomic.{AtomicLongArray, LongAdder}
+
+import au.com.dius.pact.core.model.{OptionalBody, Response}
+
+import scala.collection.JavaConverters._
+
+/**
+ * Histogram of durations with fixed buckets, in seconds. Durations above the largest bound are counted in an extra
+ * overflow slot, so the total count is always the sum of the buckets.
+ */
+class LatencyHistogram {
+  private val buckets = new AtomicLongArray(LatencyHistogram.Bounds.length + 1)
+  private val sumNanos = new LongAdder()
+
+  def record(nanos: Long): Unit = {
+    val seconds = nanos / 1e9
+    val index = LatencyHistogram.Bounds.indexWhere(seconds <= _)
+    buckets.incrementAndGet(if (index >= 0) index else LatencyHistogram.Bounds.length)
+    sumNanos.add(nanos)
+  }
+
+  /**
+   * Cumulative count for each bucket bound, followed by the total count for +Inf. The counts are read from a single
+   * pass over the buckets, so they never decrease from one bound to the next.
+   */
+  def cumulativeCounts: Seq[(String, Long)] = {
+    val counts = (0 until buckets.length).scanLeft(0L)((total, i) => total + buckets.get(i)).tail
+    (LatencyHistogram.Bounds.map(_.toString) :+ "+Inf").zip(counts)
+  }
+
+  def getCount: Long = (0 until buckets.length).map(buckets.get).sum
+
+  def sumSeconds: Double = sumNanos.sum() / 1e9
+}
+
+object LatencyHistogram {
+  val Bounds: Seq[Double] = Seq(0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0)
+}
+
+/**
+ * Request statistics for a session
+ */
+class SessionStats {
+  val requests = new LongAdder()
+  val matched = new LongAdder()
+  val partial = new LongAdder()
+  val unexpected = new LongAdder()
+  val latency = new LatencyHistogram()
+}
+
+/**
+ * Renders the server metrics in the Prometheus text format
+ */
+object Metrics {
+  val ContentType = "text/plain; version=0.0.4; charset=utf-8"
+
+  def apply(oldState: ServerState): Result = {
+    val body = OptionalBody.body(render(oldState).getBytes("UTF-8"))
+    Result(new Response(200, (ResponseUtils.CrossSiteHeaders ++
+      Map("Content-Type" -> List(ContentType).asJava)).asJava, body), oldState)
+  }
+
+  def render(state: ServerState): String = {
+    val providers = state.values.toSeq.distinct.sortBy(_.config.getPort)
+    val sessions = providers.flatMap(provider => provider.pact.map(pact => (provider, pact)))
+    val out = new StringBuilder
+
+    gauge(out, "pact_server_mock_providers", "Number of running mock providers", providers.size)
+    gauge(out, "pact_server_sessions", "Number of mock providers with an active pact session", sessions.size)
+    gauge(out, "pact_server_allocated_ports", "Number of ports allocated to mock providers",
+      PortAllocator.allocatedPorts)
+
+    val labelled = sessions.map { case (provider, pact) =>
+      (labels(Seq("port" -> provider.config.getPort.toString, "consumer" -> pact.getConsumer.getName,
+        "provider" -> pact.getProvider.getName)), provider.session.stats)
+    }
+    counter(out, "pact_session_requests_total", "Requests received by the session",
+      labelled.map { case (l, stats) => (l, stats.requests.sum()) })
+    counter(out, "pact_session_matched_total", "Requests that matched an interaction",
+      labelled.map { case (l, stats) => (l, stats.matched.sum()) })
+    counter(out, "pact_session_partial_total", "Requests that partially matched an interaction",
+      labelled.map { case (l, stats) => (l, stats.partial.sum()) })
+    counter(out, "pact_session_unexpected_total", "Requests that did not match any interaction",
+      labelled.map { case (l, stats) => (l, stats.unexpected.sum()) })
+
+    val histogram = "pact_session_receive_request_seconds"
+    out.append(s"# HELP $histogram Time taken to match and record a request\n")
+    out.append(s"# TYPE $histogram histogram\n")
+    labelled.foreach { case (l, stats) =>
+      val counts = stats.latency.cumulativeCounts
+      counts.foreach { case (le, count) =>
+        out.append(s"${histogram}_bucket{$l,le=\"$le\"} $count\n")
+      }
+      out.append(s"${histogram}_sum{$l} ${stats.latency.sumSeconds}\n")
+      out.append(s"${histogram}_count{$l} ${counts.last._2}\n")
+    }
+    out.toString
+  }
+
+  private def gauge(out: StringBuilder, name: String, help: String, value: Long): Unit = {
+    out.append(s"# HELP $name $help\n")
+    out.append(s"# TYPE $name gauge\n")
+    out.append(s"$name $value\n")
+  }
+
+  private def counter(out: StringBuilder, name: String, help: String, values: Seq[(String, Long)]): Unit = {
+    out.append(s"# HELP $name $help\n")
+    out.append(s"# TYPE $name counter\n")
+    values.foreach { case (l, value) => out.append(s"$name{$l} $value\n") }
+  }
+
+  private def labels(values: Seq[(String, String)]): String =
+    values.map { case (name, value) => name + "=\"" + escape(value) + "\"" }.mkString(",")
+
+  private def escape(value: String): String =
+    value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+}
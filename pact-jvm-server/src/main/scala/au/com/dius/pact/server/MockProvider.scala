@@ -1,5 +1,9 @@
 package au.com.dius.pact.server
 
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+
+import au.com.dius.pact.consumer.InFlightRequests
 import au.com.dius.pact.consumer.model.{MockHttpsKeystoreProviderConfig, MockHttpsProviderConfig, MockProviderConfig}
 import au.com.dius.pact.core.model.{PactSpecVersion, Request, Response, Pact => PactModel}
 import com.typesafe.scalalogging.StrictLogging
@@ -30,21 +34,28 @@ object DefaultMockProvider {
     }
 }
 
-// TODO: eliminate horrid state mutation and synchronisation.  Reactive stuff to the rescue?
+/**
+ * Mock provider that records the requests it receives in a session. Requests are matched without holding any locks,
+ * and the session records the results in concurrent queues, so requests are handled in parallel.
+ */
 abstract class StatefulMockProvider extends MockProvider with StrictLogging {
-  private var sessionVar = PactSession.empty
-  private var pactVar: Option[PactModel] = None
+  private val sessionRef = new AtomicReference[PactSession](PactSession.empty)
+  @volatile private var pactVar: Option[PactModel] = None
+  private val inFlightRequests = new InFlightRequests()
 
-  private def waitForRequestsToFinish() = Thread.sleep(100)
+  private def waitForRequestsToFinish(): Unit =
+    if (!inFlightRequests.awaitCompletion(StatefulMockProvider.RequestCompletionTimeoutMs, TimeUnit.MILLISECONDS)) {
+      logger.warn(s"Timed out waiting for ${inFlightRequests.getSize} request(s) to the mock provider to complete")
+    }
 
-  def session: PactSession  = sessionVar
+  def session: PactSession = sessionRef.get()
   def pact: Option[PactModel] = pactVar
 
   def start(): Unit
 
   override def start(pact: PactModel): Unit = synchronized {
     pactVar = Some(pact)
-    sessionVar = PactSession.forPact(pact)
+    sessionRef.set(PactSession.forPact(pact))
     start()
   }
 
@@ -69,11 +80,19 @@ abstract class StatefulMockProvider extends MockProvider with StrictLogging {
     }
   }
 
-  final def handleRequest(req: Request): Response = synchronized {
-    logger.debug("Received request: " + req)
-    val (response, newSession) = session.receiveRequest(req)
-    logger.debug("Generating response: " + response)
-    sessionVar = newSession
-    response
+  final def handleRequest(req: Request): Response = {
+    inFlightRequests.started()
+    try {
+      logger.debug("Received request: " + req)
+      val response = session.receiveRequest(req)
+      logger.debug("Generating response: " + response)
+      response
+    } finally {
+      inFlightRequests.finished()
+    }
   }
 }
+
+object StatefulMockProvider {
+  val RequestCompletionTimeoutMs = 5000L
+}
@@ -4,6 +4,8 @@ import au.com.dius.pact.core.matchers.{FullRequestMatch, PartialRequestMatch, Re
 import au.com.dius.pact.core.model.{Interaction, OptionalBody, Request, RequestResponseInteraction, Response, Pact => PactModel}
 import org.apache.commons.lang3.StringEscapeUtils
 
+import java.util.concurrent.ConcurrentLinkedQueue
+
 import scala.collection.JavaConverters._
 
 object PactSessionResults {
@@ -25,15 +27,28 @@ case class PactSessionResults(
 }
 
 object PactSession {
-  val empty = PactSession(Seq(), PactSessionResults.empty)
+  def empty = new PactSession(Seq())
 
-  def forPact(pact: PactModel) = PactSession(pact.getInteractions.asScala, PactSessionResults.empty)
+  def forPact(pact: PactModel) = new PactSession(pact.getInteractions.asScala)
 }
 
-case class PactSession(expected: Seq[Interaction], results: PactSessionResults) {
+/**
+ * Records the requests received for the expected interactions. The request matcher is built once for the session,
+ * and the results are appended to concurrent queues, so requests can be received from multiple threads without
+ * copying the session.
+ */
+class PactSession(val expected: Seq[Interaction]) {
   import scala.collection.JavaConverters._
 
-  private def matcher = new RequestMatching(expected.asInstanceOf[Seq[RequestResponseInteraction]].asJava)
+  private val matcher = new RequestMatching(expected.asInstanceOf[Seq[RequestResponseInteraction]].asJava)
+  private val matched = new ConcurrentLinkedQueue[Interaction]()
+  private val almostMatched = new ConcurrentLinkedQueue[PartialRequestMatch]()
+  private val unexpected = new ConcurrentLinkedQueue[Request]()
+
+  /**
+   * Request counts and latencies for the metrics endpoint
+   */
+  val stats = new SessionStats()
 
   val CrossSiteHeaders = Map[String, java.util.List[String]]("Access-Control-Allow-Origin" -> List("*").asJava)
 
@@ -44,31 +59,53 @@ case class PactSession(expected: Seq[Interaction], results: PactSessionResults)
     new Response(500, headers.asJava, OptionalBody.body(body.getBytes))
   }
 
-  def receiveRequest(req: Request): (Response, PactSession) = {
-    val invalidResponse = invalidRequest(req)
-
-    matcher.matchInteraction(req) match {
-      case frm: FullRequestMatch =>
-        (frm.getInteraction.asInstanceOf[RequestResponseInteraction].getResponse, recordMatched(frm.getInteraction))
-
-      case p: PartialRequestMatch =>
-        (invalidResponse, recordAlmostMatched(p))
-
-      case _: RequestMismatch =>
-        (invalidResponse, recordUnexpected(req))
+  /**
+   * Matches the request against the expected interactions, records the result and returns the response
+   */
+  def receiveRequest(req: Request): Response = {
+    val start = System.nanoTime()
+    stats.requests.increment()
+    try {
+      matcher.matchInteraction(req) match {
+        case frm: FullRequestMatch =>
+          stats.matched.increment()
+          recordMatched(frm.getInteraction)
+          frm.getInteraction.asInstanceOf[RequestResponseInteraction].getResponse
+
+        case p: PartialRequestMatch =>
+          stats.partial.increment()
+          recordAlmostMatched(p)
+          invalidRequest(req)
+
+        case _: RequestMismatch =>
+          stats.unexpected.increment()
+          recordUnexpected(req)
+          invalidRequest(req)
+      }
+    } finally {
+      stats.latency.record(System.nanoTime() - start)
     }
   }
 
-  def recordUnexpected(req: Request): PactSession =
-    copy(results = results addUnexpected req)
+  def recordUnexpected(req: Request): Unit = unexpected.add(req)
 
-  def recordAlmostMatched(partial: PartialRequestMatch): PactSession =
-    copy(results = results addAlmostMatched partial)
+  def recordAlmostMatched(partial: PartialRequestMatch): Unit = almostMatched.add(partial)
 
-  def recordMatched(interaction: Interaction): PactSession =
-    copy(results = results addMatched interaction)
+  def recordMatched(interaction: Interaction): Unit = matched.add(interaction)
 
-  def withTheRestMissing: PactSession = PactSession(Seq(), remainingResults)
+  /**
+   * Snapshot of the results recorded so far, with the most recent first
+   */
+  def results: PactSessionResults = PactSessionResults(matched.asScala.toList.reverse,
+    almostMatched.asScala.toList.reverse, Nil, unexpected.asScala.toList.reverse)
 
-  def remainingResults: PactSessionResults = results.addMissing(expected diff results.matched)
+  /**
+   * Results with the expected interactions that were not matched by a request added as missing. Each match accounts
+   * for one occurrence of the interaction, so equal interactions that are expected more than once have to be matched
+   * that many times.
+   */
+  def remainingResults: PactSessionResults = {
+    val current = results
+    current.addMissing(expected diff current.matched)
+  }
 }
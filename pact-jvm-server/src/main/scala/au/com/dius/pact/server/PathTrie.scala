@@ -0,0 +1,51 @@
+package au.com.dius.pact.server
+
+import scala.annotation.tailrec
+
+/**
+ * Immutable prefix trie over the path keys of the server state, used to find the mock provider for a request path
+ * without checking every registered key.
+ */
+final class PathTrie private (val children: Map[Char, PathTrie], val provider: Option[StatefulMockProvider]) {
+
+  /**
+   * Returns the mock provider registered with the longest key that is a prefix of the path
+   */
+  def longestPrefixMatch(path: String): Option[StatefulMockProvider] = {
+    @tailrec
+    def search(node: PathTrie, index: Int, best: Option[StatefulMockProvider]): Option[StatefulMockProvider] = {
+      val current = node.provider.orElse(best)
+      if (index == path.length) {
+        current
+      } else {
+        node.children.get(path.charAt(index)) match {
+          case Some(child) => search(child, index + 1, current)
+          case None => current
+        }
+      }
+    }
+    search(this, 0, None)
+  }
+
+  private def insert(key: String, index: Int, value: StatefulMockProvider): PathTrie = {
+    if (index == key.length) {
+      new PathTrie(children, Some(value))
+    } else {
+      val c = key.charAt(index)
+      val child = children.getOrElse(c, PathTrie.empty)
+      new PathTrie(children + (c -> child.insert(key, index + 1, value)), provider)
+    }
+  }
+}
+
+object PathTrie {
+  val empty = new PathTrie(Map(), None)
+
+  /**
+   * Builds the trie for the keys of the server state. Port keys are included as well, but they never prefix a path.
+   */
+  def apply(state: ServerState): PathTrie =
+    state.foldLeft(empty) { case (trie, (key, provider)) =>
+      trie.insert(key, 0, provider)
+    }
+}
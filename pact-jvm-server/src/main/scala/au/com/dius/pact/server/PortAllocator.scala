@@ -0,0 +1,121 @@
+package au.com.dius.pact.server
+
+import java.net.BindException
+import java.util
+
+import com.typesafe.scalalogging.StrictLogging
+
+import scala.annotation.tailrec
+
+/**
+ * Hands out the ports in [lower, upper) to mock providers. The allocated ports are tracked in a bit set, and are
+ * returned when the mock provider is completed. A port is only handed out once the listener has been bound to it, so
+ * there is no race between checking that a port is free and binding to it.
+ */
+class PortAllocator(val lower: Int, val upper: Int) extends StrictLogging {
+  require(upper > lower, s"The upper port bound ($upper) must be greater than the lower bound ($lower)")
+
+  private val size = upper - lower
+  private val allocated = new util.BitSet(size)
+  private var next = 0
+
+  /**
+   * Reserves a free port and binds to it with the bind function. If the port is in use outside of this server, the
+   * next free port is tried.
+   * @return the port and the result of the bind function, or None if no free port could be bound
+   */
+  def allocate[T](bind: Int => T): Option[(Int, T)] = {
+    var result: Option[(Int, T)] = None
+    var attempts = 0
+    while (result.isEmpty && attempts < size) {
+      reserve() match {
+        case Some(port) =>
+          attempts += 1
+          try {
+            result = Some((port, bind(port)))
+          } catch {
+            case e: Exception =>
+              release(port)
+              if (PortAllocator.isBindFailure(e)) {
+                logger.debug(s"Port $port is already in use, trying the next free port")
+              } else {
+                throw e
+              }
+          }
+        case None =>
+          attempts = size
+      }
+    }
+    result
+  }
+
+  private def reserve(): Option[Int] = synchronized {
+    var index = allocated.nextClearBit(next)
+    if (index >= size) {
+      index = allocated.nextClearBit(0)
+    }
+    if (index >= size) {
+      None
+    } else {
+      allocated.set(index)
+      next = index + 1
+      Some(lower + index)
+    }
+  }
+
+  /**
+   * Returns the port so it can be allocated again
+   */
+  def release(port: Int): Unit = synchronized {
+    if (contains(port)) {
+      allocated.clear(port - lower)
+    }
+  }
+
+  def contains(port: Int): Boolean = port >= lower && port < upper
+
+  /**
+   * Number of ports currently allocated
+   */
+  def allocatedPorts: Int = synchronized {
+    allocated.cardinality()
+  }
+}
+
+object PortAllocator {
+  private var allocators = Map[(Int, Int), PortAllocator]()
+
+  /**
+   * Returns the allocator for the port range, creating it if needed
+   */
+  def forRange(lower: Int, upper: Int): PortAllocator = synchronized {
+    allocators.get((lower, upper)) match {
+      case Some(allocator) => allocator
+      case None =>
+        val allocator = new PortAllocator(lower, upper)
+        allocators += (lower, upper) -> allocator
+        allocator
+    }
+  }
+
+  /**
+   * Returns the port to the allocators that manage it
+   */
+  def release(port: Int): Unit = synchronized {
+    allocators.values.filter(_.contains(port)).foreach(_.release(port))
+  }
+
+  /**
+   * Number of ports allocated by all the allocators
+   */
+  def allocatedPorts: Int = synchronized {
+    allocators.values.map(_.allocatedPorts).sum
+  }
+
+  @tailrec
+  def isBindFailure(e: Throwable): Boolean = e match {
+    case null => false
+    case _: BindException => true
+    case _ => isBindFailure(e.getCause)
+  }
+}
@@ -1,5 +1,7 @@
 package au.com.dius.pact.server
 
+import java.util.concurrent.atomic.AtomicReference
+
 import io.netty.channel.ChannelHandler.Sharable
 import unfiltered.netty.ReceivedMessage
 import unfiltered.netty.ServerErrorResponse
@@ -8,21 +10,46 @@ import unfiltered.request.HttpRequest
 import unfiltered.response.ResponseFunction
 import scala.collection.immutable.Map
 
+/**
+ * Registry of the running mock providers. Requests to the mock providers only read the current state, so they never
+ * wait on each other. Changes (creating and completing mock providers) are applied one at a time. The state is kept
+ * together with the routing trie built for it, so requests always route with the trie for the state they see.
+ */
 class ServerStateStore {
-  var state: ServerState = Map()
+  private val stateRef = new AtomicReference[(ServerState, PathTrie)]((Map(), PathTrie.empty))
+
+  def state: ServerState = stateRef.get()._1
+
+  /**
+   * The current state and the routing trie for it
+   */
+  def snapshot: (ServerState, PathTrie) = stateRef.get()
+
+  def update(f: (ServerState, PathTrie) => Result): Result = synchronized {
+    val (state, trie) = stateRef.get()
+    val result = f(state, trie)
+    if (!(result.newState eq state)) {
+      stateRef.set((result.newState, PathTrie(result.newState)))
+    }
+    result
+  }
 }
 
 @Sharable
 case class RequestHandler(store: ServerStateStore, config: Config) extends cycle.Plan
-  with cycle.SynchronousExecution
+  with cycle.ThreadPool
   with ServerErrorResponse {
     import io.netty.handler.codec.http.{ HttpResponse=>NHttpResponse }
 
     def handle(request: HttpRequest[ReceivedMessage]): ResponseFunction[NHttpResponse] = {
       val pactRequest = Conversions.unfilteredRequestToPactRequest(request)
-      val result = RequestRouter.dispatch(pactRequest, store.state, config)
-      store.state = result.newState
-      Conversions.pactToUnfilteredResponse(result.response)
+      val response = if (RequestRouter.changesState(pactRequest)) {
+        store.update((state, trie) => RequestRouter.dispatch(pactRequest, state, trie, config)).response
+      } else {
+        val (state, trie) = store.snapshot
+        RequestRouter.dispatch(pactRequest, state, trie, config).response
+      }
+      Conversions.pactToUnfilteredResponse(response)
     }
     def intent = PartialFunction[HttpRequest[ReceivedMessage], ResponseFunction[NHttpResponse]](handle)
 }
@@ -7,15 +7,12 @@ import au.com.dius.pact.core.model.{Request, Response, _}
 import scala.collection.JavaConverters._
 
 object RequestRouter {
-  def matchPath(request: Request, oldState: ServerState): Option[StatefulMockProvider] =
-    (for {
-      k <- oldState.keys if request.getPath.startsWith(k)
-      pact <- oldState.get(k)
-    } yield pact).headOption
+  def matchPath(request: Request, trie: PathTrie): Option[StatefulMockProvider] =
+    trie.longestPrefixMatch(request.getPath)
 
-  def handlePactRequest(request: Request, oldState: ServerState): Option[Response] =
+  def handlePactRequest(request: Request, trie: PathTrie): Option[Response] =
     for {
-      pact <- matchPath(request, oldState)
+      pact <- matchPath(request, trie)
     } yield pact.handleRequest(request)
 
   def state404(request: Request, oldState: ServerState): String =
@@ -23,19 +20,38 @@ object RequestRouter {
 
   val EMPTY_MAP: util.Map[String, util.List[String]] = Map[String, util.List[String]]().asJava
 
-  def pactDispatch(request: Request, oldState: ServerState): Response =
-    handlePactRequest(request, oldState) getOrElse new Response(404, EMPTY_MAP,
+  def pactDispatch(request: Request, oldState: ServerState, trie: PathTrie): Response =
+    handlePactRequest(request, trie) getOrElse new Response(404, EMPTY_MAP,
       OptionalBody.body(state404(request, oldState).getBytes))
 
-  def dispatch(request: Request, oldState: ServerState, config: Config): Result = {
-    val urlPattern ="/(\\w*)\\?{0,1}.*".r
+  private val urlPattern = "/(\\w*)\\?{0,1}.*".r
+
+  private def action(request: Request): String = {
     val urlPattern(action) = request.getPath
-    action match {
+    action
+  }
+
+  /**
+   * If the request creates or completes a mock provider, and so has to be applied to the server state one at a time.
+   * All other requests (including publishing a pact) only read the state.
+   */
+  def changesState(request: Request): Boolean = action(request) match {
+    case "create" | "createAll" | "complete" => true
+    case _ => false
+  }
+
+  /**
+   * Handles the request against the server state. The trie must be the one built for the state.
+   */
+  def dispatch(request: Request, oldState: ServerState, trie: PathTrie, config: Config): Result = {
+    action(request) match {
       case "create" => Create(request, oldState, config)
+      case "createAll" => Create.createAll(request, oldState, config)
       case "complete" => Complete(request, oldState)
       case "publish" => Publish(request, oldState, config)
+      case "metrics" => Metrics(oldState)
       case "" => ListServers(oldState)
-      case _ => Result(pactDispatch(request, oldState), oldState)
+      case _ => Result(pactDispatch(request, oldState, trie), oldState)
     }
   }
 }
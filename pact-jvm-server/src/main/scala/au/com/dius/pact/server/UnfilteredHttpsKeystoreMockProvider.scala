@@ -17,7 +17,7 @@ class UnfilteredHttpsKeystoreMockProvider(val config: MockHttpsKeystoreProviderC
 
   @Sharable
   object Routes extends unettyc.Plan
-    with unettyc.SynchronousExecution
+    with unettyc.ThreadPool
     with unetty.ServerErrorResponse {
 
     override def intent: unettyc.Plan.Intent = {
@@ -18,7 +18,7 @@ class UnfilteredHttpsMockProvider(val config: MockHttpsProviderConfig) extends S
 
   @Sharable
   object Routes extends unettyc.Plan
-    with unettyc.SynchronousExecution
+    with unettyc.ThreadPool
     with unetty.ServerErrorResponse {
 
     override def intent: unettyc.Plan.Intent = {
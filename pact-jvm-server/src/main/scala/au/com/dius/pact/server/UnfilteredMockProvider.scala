@@ -15,7 +15,7 @@ class UnfilteredMockProvider(val config: MockProviderConfig) extends StatefulMoc
 
   @Sharable
   object Routes extends unettyc.Plan
-    with unettyc.SynchronousExecution
+    with unettyc.ThreadPool
     with unetty.ServerErrorResponse {
 
     override def intent: unettyc.Plan.Intent = {
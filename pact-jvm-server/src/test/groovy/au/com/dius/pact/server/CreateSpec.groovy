@@ -1,7 +1,11 @@
 package au.com.dius.pact.server
 
+import au.com.dius.pact.core.model.OptionalBody
+import au.com.dius.pact.core.model.Request
 import scala.collection.JavaConverters
+import scala.collection.immutable.HashMap
 import spock.lang.Specification
+import spock.lang.Unroll
 
 import java.nio.file.Paths
 
@@ -58,4 +62,86 @@ class CreateSpec extends Specification {
     }
   }
 
+  def 'createAll starts a mock provider for each pact'() {
+    given:
+    def pact = CreateSpec.getResourceAsStream('/create-pact.json').text
+    def body = "[{\"pact\": $pact, \"path\": [\"/a\"]}, {\"pact\": $pact}]"
+    def config = new Config(4444, 'localhost', false, 31100, 31110, true, 2, '', '', 8444, '', '')
+
+    when:
+    def result = Create.createAll(createAllRequest(body), new HashMap(), config)
+    def state = result.newState()
+
+    then:
+    result.response().status == 201
+    result.response().body.valueAsString() == '{"ports": [31100, 31101]}'
+    state.size() == 3
+    state.apply('/a').is(state.apply('31100'))
+    state.contains('31101')
+
+    cleanup:
+    stopAll(result)
+  }
+
+  def 'createAll stops the mock providers already created when one of them fails'() {
+    given:
+    def pact = CreateSpec.getResourceAsStream('/create-pact.json').text
+    def body = "[{\"pact\": $pact}, {\"pact\": $pact}]"
+    def config = new Config(4444, 'localhost', false, 31120, 31121, true, 2, '', '', 8444, '', '')
+
+    when:
+    Create.createAll(createAllRequest(body), new HashMap(), config)
+
+    then:
+    thrown(IllegalStateException)
+    PortAllocator.forRange(31120, 31121).allocatedPorts() == 0
+    portIsFree(31120)
+  }
+
+  @Unroll
+  def 'createAll returns a client error when #description'() {
+    given:
+    def config = new Config(4444, 'localhost', false, 31130, 31140, true, 2, '', '', 8444, '', '')
+
+    when:
+    def result = Create.createAll(createAllRequest(body), new HashMap(), config)
+
+    then:
+    result.response().status == 400
+    result.response().body.valueAsString().contains(error)
+    result.newState().empty
+    PortAllocator.forRange(31130, 31140).allocatedPorts() == 0
+
+    where:
+
+    description                         | body                                               | error
+    'the body is not an array'          | '{"pact": {}}'                                     | 'JSON array of pacts'
+    'the body is not JSON'              | '[{"pact"'                                         | 'JSON array of pacts'
+    'an entry is not an object'         | '[{"pact": {}}, "pact"]'                           | 'entry 1 must be an object'
+    'an entry has no pact'              | '[{"path": ["/a"]}]'                               | 'entry 0 must be an object'
+    'a path is a string'                | '[{"pact": {}, "path": "/a"}]'                     | 'path of entry 0'
+    'a path is not an array of strings' | '[{"pact": {}, "path": [1]}]'                      | 'path of entry 0'
+  }
+
+  private static Request createAllRequest(String body) {
+    new Request('POST', '/createAll', [:], ['Content-Type': ['application/json']], OptionalBody.body(body.bytes))
+  }
+
+  private static void stopAll(Result result) {
+    if (result != null) {
+      JavaConverters.asJavaCollection(result.newState().values()).toList().unique().each {
+        it.stop()
+        PortAllocator.release(it.config().port)
+      }
+    }
+  }
+
+  private static boolean portIsFree(int port) {
+    try {
+      new ServerSocket(port).close()
+      true
+    } catch (IOException e) {
+      false
+    }
+  }
 }
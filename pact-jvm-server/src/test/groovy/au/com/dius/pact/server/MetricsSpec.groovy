@@ -0,0 +1,108 @@
+package au.com.dius.pact.server
+
+import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.core.model.Consumer
+import au.com.dius.pact.core.model.Provider
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponseInteraction
+import au.com.dius.pact.core.model.RequestResponsePact
+import au.com.dius.pact.core.model.Response
+import scala.Option
+import scala.Tuple2
+import scala.collection.immutable.HashMap
+import spock.lang.Specification
+
+class MetricsSpec extends Specification {
+
+  def 'the session counts matched, partial and unexpected requests'() {
+    given:
+    def session = PactSession.forPact(pact())
+
+    when:
+    session.receiveRequest(new Request('GET', '/animals'))
+    session.receiveRequest(new Request('GET', '/animals', [type: ['cat']]))
+    session.receiveRequest(new Request('GET', '/other'))
+
+    then:
+    session.stats().requests().sum() == 3
+    session.stats().matched().sum() == 1
+    session.stats().partial().sum() == 1
+    session.stats().unexpected().sum() == 1
+    session.stats().latency().getCount() == 3
+  }
+
+  def 'the histogram buckets are cumulative'() {
+    given:
+    def histogram = new LatencyHistogram()
+
+    when:
+    histogram.record(100_000)
+    histogram.record(2_000_000)
+    histogram.record(10_000_000_000)
+    def counts = histogram.cumulativeCounts()
+
+    then:
+    counts.apply(0)._1() == '5.0E-4'
+    counts.apply(0)._2() == 1
+    counts.apply(2)._1() == '0.0025'
+    counts.apply(2)._2() == 2
+    counts.last()._1() == '+Inf'
+    counts.last()._2() == 3
+  }
+
+  def 'durations above the largest bound are only counted in the +Inf bucket'() {
+    given:
+    def histogram = new LatencyHistogram()
+
+    when:
+    histogram.record(10_000_000_000)
+    histogram.record(20_000_000_000)
+    def counts = histogram.cumulativeCounts()
+
+    then:
+    counts.size() == LatencyHistogram.Bounds().size() + 1
+    counts.apply(counts.size() - 2)._1() == '5.0'
+    counts.apply(counts.size() - 2)._2() == 0
+    counts.last()._2() == 2
+    histogram.getCount() == 2
+  }
+
+  def 'renders the sessions in the Prometheus text format'() {
+    given:
+    def pact = pact()
+    def session = PactSession.forPact(pact)
+    session.receiveRequest(new Request('GET', '/animals'))
+    def provider = Stub(StatefulMockProvider) {
+      config() >> MockProviderConfig.httpConfig('localhost', 20001)
+      pact() >> Option.apply(pact)
+      session() >> session
+    }
+    def state = new HashMap()
+      .$plus(new Tuple2('20001', provider))
+      .$plus(new Tuple2('/animals', provider))
+
+    when:
+    def result = Metrics.apply(state)
+    def text = new String(result.response().body.value, 'UTF-8')
+    def labels = 'port="20001",consumer="Zoo \\"App\\"",provider="Animal Service"'
+
+    then:
+    result.response().status == 200
+    result.response().headers['Content-Type'] == [Metrics.ContentType()]
+    result.newState().is(state)
+    text.contains('pact_server_mock_providers 1\n')
+    text.contains('pact_server_sessions 1\n')
+    text.contains('# TYPE pact_session_requests_total counter\n')
+    text.contains("pact_session_requests_total{$labels} 1\n")
+    text.contains("pact_session_matched_total{$labels} 1\n")
+    text.contains("pact_session_unexpected_total{$labels} 0\n")
+    text.contains("pact_session_receive_request_seconds_bucket{$labels,le=\"+Inf\"} 1\n")
+    text.contains("pact_session_receive_request_seconds_count{$labels} 1\n")
+  }
+
+  private static RequestResponsePact pact() {
+    new RequestResponsePact(new Provider('Animal Service'), new Consumer('Zoo "App"'), [
+      new RequestResponseInteraction('get animals', [], new Request('GET', '/animals'), new Response(200))
+    ])
+  }
+}
@@ -0,0 +1,97 @@
+package au.com.dius.pact.server
+
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponseInteraction
+import au.com.dius.pact.core.model.Response
+import scala.collection.JavaConverters
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class PactSessionSpec extends Specification {
+
+  private static RequestResponseInteraction interaction(String path) {
+    new RequestResponseInteraction("get $path".toString(), [], new Request('GET', path), new Response(200))
+  }
+
+  private static PactSession session(List interactions) {
+    new PactSession(JavaConverters.asScalaBuffer(interactions).toList())
+  }
+
+  private static List javaList(scala.collection.Seq seq) {
+    JavaConverters.seqAsJavaList(seq)
+  }
+
+  def 'records the results with the most recent first'() {
+    given:
+    def a = interaction('/a')
+    def b = interaction('/b')
+    def session = session([a, b])
+
+    when:
+    session.receiveRequest(new Request('GET', '/a'))
+    session.receiveRequest(new Request('GET', '/x'))
+    session.receiveRequest(new Request('GET', '/b'))
+    session.receiveRequest(new Request('GET', '/y'))
+    def results = session.results()
+
+    then:
+    javaList(results.matched()) == [b, a]
+    javaList(results.unexpected())*.path == ['/y', '/x']
+    results.missing().empty
+  }
+
+  @Timeout(60)
+  def 'records the results of concurrent requests'() {
+    given:
+    def session = session([interaction('/a'), interaction('/b')])
+    def executor = Executors.newFixedThreadPool(8)
+
+    when:
+    executor.invokeAll((1..400).collect { i ->
+      { -> session.receiveRequest(new Request('GET', ['/a', '/b', '/c', '/d'][i % 4])) } as Callable
+    })*.get()
+    def results = session.remainingResults()
+
+    then:
+    results.matched().size() == 200
+    results.unexpected().size() == 200
+    results.missing().empty
+    session.stats().requests().sum() == 400
+
+    cleanup:
+    executor.shutdown()
+  }
+
+  def 'interactions that were not matched are missing'() {
+    given:
+    def a = interaction('/a')
+    def b = interaction('/b')
+    def session = session([a, b])
+
+    when:
+    session.receiveRequest(new Request('GET', '/a'))
+    def results = session.remainingResults()
+
+    then:
+    javaList(results.missing()) == [b]
+    !results.allMatched()
+  }
+
+  def 'an interaction expected more than once has to be matched that many times'() {
+    given:
+    def session = session([interaction('/a'), interaction('/a')])
+
+    when:
+    session.receiveRequest(new Request('GET', '/a'))
+    def missingAfterOne = session.remainingResults().missing().size()
+    session.receiveRequest(new Request('GET', '/a'))
+    def missingAfterTwo = session.remainingResults().missing().size()
+
+    then:
+    missingAfterOne == 1
+    missingAfterTwo == 0
+  }
+}
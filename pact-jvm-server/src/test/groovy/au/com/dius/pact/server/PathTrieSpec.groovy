@@ -0,0 +1,28 @@
+package au.com.dius.pact.server
+
+import scala.Tuple2
+import scala.collection.immutable.HashMap
+import spock.lang.Specification
+
+class PathTrieSpec extends Specification {
+
+  def 'finds the provider registered with the longest matching prefix'() {
+    given:
+    def users = Mock(StatefulMockProvider)
+    def admin = Mock(StatefulMockProvider)
+    def other = Mock(StatefulMockProvider)
+    def state = new HashMap()
+      .$plus(new Tuple2('/users', users))
+      .$plus(new Tuple2('/users/admin', admin))
+      .$plus(new Tuple2('/other', other))
+      .$plus(new Tuple2('20000', other))
+    def trie = PathTrie.apply(state)
+
+    expect:
+    trie.longestPrefixMatch('/users/1').get().is(users)
+    trie.longestPrefixMatch('/users/admin/1').get().is(admin)
+    trie.longestPrefixMatch('/other').get().is(other)
+    trie.longestPrefixMatch('/unknown').empty
+    trie.longestPrefixMatch('/use').empty
+  }
+}
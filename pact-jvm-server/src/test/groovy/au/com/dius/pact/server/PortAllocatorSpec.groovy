@@ -0,0 +1,57 @@
+package au.com.dius.pact.server
+
+import spock.lang.Specification
+
+class PortAllocatorSpec extends Specification {
+
+  def 'allocates each port once until it is released'() {
+    given:
+    def allocator = new PortAllocator(30000, 30002)
+    def bind = { port -> port } as scala.Function1
+
+    when:
+    def first = allocator.allocate(bind)
+    def second = allocator.allocate(bind)
+    def third = allocator.allocate(bind)
+    allocator.release(first.get()._1())
+    def fourth = allocator.allocate(bind)
+
+    then:
+    first.get()._1() == 30000
+    second.get()._1() == 30001
+    third.empty
+    fourth.get()._1() == 30000
+    allocator.allocatedPorts() == 2
+  }
+
+  def 'skips ports that can not be bound'() {
+    given:
+    def allocator = new PortAllocator(30000, 30003)
+    def bind = { port ->
+      if (port == 30000) {
+        throw new java.net.BindException('Address already in use')
+      }
+      port
+    } as scala.Function1
+
+    when:
+    def result = allocator.allocate(bind)
+
+    then:
+    result.get()._1() == 30001
+    allocator.allocatedPorts() == 1
+  }
+
+  def 'releases the port and rethrows other failures'() {
+    given:
+    def allocator = new PortAllocator(30000, 30003)
+    def bind = { port -> throw new IllegalStateException('boom') } as scala.Function1
+
+    when:
+    allocator.allocate(bind)
+
+    then:
+    thrown(IllegalStateException)
+    allocator.allocatedPorts() == 0
+  }
+}
@@ -0,0 +1,83 @@
+package au.com.dius.pact.server
+
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.Response
+import scala.Tuple2
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class ServerStateStoreSpec extends Specification {
+
+  def 'update applies the change and returns its result'() {
+    given:
+    def store = new ServerStateStore()
+    def provider = Stub(StatefulMockProvider)
+    def response = new Response(201)
+
+    when:
+    def result = store.update({ state, trie -> new Result(response, state.$plus(new Tuple2('/a', provider))) }
+      as scala.Function2)
+
+    then:
+    result.response().is(response)
+    store.state().size() == 1
+    store.state().apply('/a').is(provider)
+  }
+
+  @Timeout(60)
+  def 'concurrent updates are applied one at a time'() {
+    given:
+    def store = new ServerStateStore()
+    def provider = Stub(StatefulMockProvider)
+    def executor = Executors.newFixedThreadPool(8)
+
+    when:
+    executor.invokeAll((1..100).collect { i ->
+      {
+        ->
+        store.update({ state, trie ->
+          Thread.yield()
+          new Result(new Response(201), state.$plus(new Tuple2("/$i".toString(), provider)))
+        } as scala.Function2)
+      } as Callable
+    })*.get()
+
+    then:
+    store.state().size() == 100
+
+    cleanup:
+    executor.shutdown()
+  }
+
+  def 'the routing trie is replaced with the state'() {
+    given:
+    def store = new ServerStateStore()
+    def provider = Stub(StatefulMockProvider)
+    def add = { state, trie -> new Result(new Response(201), state.$plus(new Tuple2('/a', provider))) }
+    def read = { state, trie -> new Result(new Response(200), state) }
+
+    when:
+    def trieBefore = store.snapshot()._2()
+    store.update(add as scala.Function2)
+    def snapshot = store.snapshot()
+    store.update(read as scala.Function2)
+
+    then:
+    trieBefore.longestPrefixMatch('/a/1').empty
+    snapshot._1().is(store.state())
+    snapshot._2().longestPrefixMatch('/a/1').get().is(provider)
+    store.snapshot()._2().is(snapshot._2())
+  }
+
+  def 'publishing a pact does not change the server state'() {
+    expect:
+    RequestRouter.changesState(new Request('POST', '/create'))
+    RequestRouter.changesState(new Request('POST', '/createAll'))
+    RequestRouter.changesState(new Request('POST', '/complete'))
+    !RequestRouter.changesState(new Request('POST', '/publish'))
+    !RequestRouter.changesState(new Request('GET', '/metrics'))
+  }
+}
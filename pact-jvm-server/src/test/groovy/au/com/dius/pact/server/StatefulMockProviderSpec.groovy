@@ -0,0 +1,138 @@
+package au.com.dius.pact.server
+
+import au.com.dius.pact.consumer.model.MockProviderConfig
+import au.com.dius.pact.core.model.Consumer
+import au.com.dius.pact.core.model.Provider
+import au.com.dius.pact.core.model.Request
+import au.com.dius.pact.core.model.RequestResponseInteraction
+import au.com.dius.pact.core.model.RequestResponsePact
+import au.com.dius.pact.core.model.Response
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+@Timeout(60)
+class StatefulMockProviderSpec extends Specification {
+
+  def executor = Executors.newCachedThreadPool()
+
+  def cleanup() {
+    executor.shutdownNow()
+  }
+
+  def 'requests to different providers are handled in parallel'() {
+    given:
+    def slow = new BlockingInteraction('/slow')
+    def providerA = new TestMockProvider()
+    def providerB = new TestMockProvider()
+    providerA.start(pact(slow))
+    providerB.start(pact(new RequestResponseInteraction('fast', [], new Request('GET', '/fast'), new Response(200))))
+
+    when:
+    slow.blocking = true
+    def slowResponse = executor.submit({ providerA.handleRequest(new Request('GET', '/slow')) } as Callable)
+    slow.entered.await(10, TimeUnit.SECONDS)
+    def fastResponse = providerB.handleRequest(new Request('GET', '/fast'))
+    def slowDoneBeforeRelease = slowResponse.done
+    slow.release()
+
+    then:
+    fastResponse.status == 200
+    !slowDoneBeforeRelease
+    slowResponse.get().status == 200
+  }
+
+  def 'run waits for the requests in flight to complete'() {
+    given:
+    def slow = new BlockingInteraction('/slow')
+    def provider = new TestMockProvider()
+    provider.start(pact(slow))
+
+    when:
+    def result = provider.run({ -> startSlowRequest(provider, slow) } as scala.Function0)
+
+    then:
+    result.success
+    provider.session().remainingResults().matched().size() == 1
+  }
+
+  def 'runAndClose waits for the requests in flight to complete before collecting the results'() {
+    given:
+    def slow = new BlockingInteraction('/slow')
+    def provider = new TestMockProvider()
+
+    when:
+    def result = provider.runAndClose(pact(slow), { -> startSlowRequest(provider, slow) } as scala.Function0)
+
+    then:
+    result.success
+    result.get()._2().matched().size() == 1
+    result.get()._2().missing().empty
+    provider.stopped
+  }
+
+  /**
+   * Sends a request that is still being matched when this returns, and releases it shortly afterwards
+   */
+  private void startSlowRequest(TestMockProvider provider, BlockingInteraction slow) {
+    slow.blocking = true
+    executor.submit({ provider.handleRequest(new Request('GET', '/slow')) } as Runnable)
+    slow.entered.await(10, TimeUnit.SECONDS)
+    executor.submit({
+      Thread.sleep(200)
+      slow.release()
+    } as Runnable)
+  }
+
+  private static RequestResponsePact pact(RequestResponseInteraction interaction) {
+    new RequestResponsePact(new Provider('provider'), new Consumer('consumer'), [interaction])
+  }
+
+  static class TestMockProvider extends StatefulMockProvider {
+    volatile boolean stopped = false
+
+    @Override
+    MockProviderConfig config() {
+      MockProviderConfig.createDefault()
+    }
+
+    @Override
+    void start() { }
+
+    @Override
+    void stop() {
+      stopped = true
+    }
+  }
+
+  /**
+   * Interaction that blocks the request matching while it is blocking, so a request can be held in flight
+   */
+  static class BlockingInteraction extends RequestResponseInteraction {
+    final CountDownLatch entered = new CountDownLatch(1)
+    private final CountDownLatch released = new CountDownLatch(1)
+    volatile boolean blocking = false
+
+    BlockingInteraction(String path) {
+      super('slow', [], new Request('GET', path), new Response(200))
+    }
+
+    @Override
+    Request getRequest() {
+      if (blocking) {
+        entered.countDown()
+        released.await(10, TimeUnit.SECONDS)
+      }
+      super.getRequest()
+    }
+
+    void release() {
+      blocking = false
+      released.countDown()
+    }
+  }
+}
@@ -23,6 +23,7 @@ import au.com.dius.pact.core.model.generators.GeneratorTestMode
 import au.com.dius.pact.core.model.messaging.Message
 import au.com.dius.pact.core.model.messaging.MessageInteraction
 import au.com.dius.pact.core.pactbroker.IPactBrokerClient
+import au.com.dius.pact.core.support.PatternCache
 import au.com.dius.pact.core.support.expressions.SystemPropertyResolver
 import au.com.dius.pact.core.support.hasProperty
 import au.com.dius.pact.core.support.property
@@ -831,14 +832,18 @@ open class ProviderVerifier @JvmOverloads constructor (
   private fun matchState(interaction: Interaction): Boolean {
     return if (interaction.providerStates.isNotEmpty()) {
       interaction.providerStates.any {
-        projectGetProperty.apply(PACT_FILTER_PROVIDERSTATE)?.toRegex()?.matches(it.name.toString()) ?: true }
+        projectGetProperty.apply(PACT_FILTER_PROVIDERSTATE)?.let { filter ->
+          PatternCache.matches(filter, it.name.toString())
+        } ?: true
+      }
     } else {
       projectGetProperty.apply(PACT_FILTER_PROVIDERSTATE).isNullOrEmpty()
     }
   }
 
   private fun matchDescription(interaction: Interaction): Boolean {
-    return projectGetProperty.apply(PACT_FILTER_DESCRIPTION)?.toRegex()?.matches(interaction.description) ?: true
+    return projectGetProperty.apply(PACT_FILTER_DESCRIPTION)?.let { PatternCache.matches(it, interaction.description) }
+      ?: true
   }
 
   override fun reportStateForInteraction(
@@ -16,6 +16,7 @@ import au.com.dius.pact.core.support.isNotEmpty
 import au.com.dius.pact.core.support.json.JsonParser
 import au.com.dius.pact.core.support.json.JsonToken
 import au.com.dius.pact.core.support.json.JsonValue
+import au.com.dius.pact.core.support.json.JsonWriter
 import au.com.dius.pact.core.support.jsonArray
 import au.com.dius.pact.core.support.jsonObject
 import au.com.dius.pact.core.support.property
@@ -78,16 +79,20 @@ class JsonReporter(
             providerName == existingContents["provider"]["name"].asString()) {
             existingContents["metaData"] = jsonData["metaData"]
             existingContents["execution"].asArray()!!.addAll(jsonData["execution"])
-            reportFile.writeText(existingContents.serialise())
+            writeReport(existingContents)
           } else {
-            reportFile.writeText(jsonData.serialise())
+            writeReport(jsonData)
           }
         }
-        else -> reportFile.writeText(jsonData.serialise())
+        else -> writeReport(jsonData)
       }
     }
   }
 
+  private fun writeReport(json: JsonValue) {
+    reportFile.bufferedWriter().use { JsonWriter.write(json, it) }
+  }
+
   override fun reportVerificationForConsumer(consumer: IConsumerInfo, provider: IProviderInfo, tag: String?) {
     val jsonObject = jsonObject(
       "consumer" to jsonObject("name" to consumer.name),